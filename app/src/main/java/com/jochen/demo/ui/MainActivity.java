@@ -16,6 +16,7 @@ import android.widget.Button;
 import com.jochen.bluetoothmanager.base.BaseDevice;
 import com.jochen.bluetoothmanager.ble.BLEManager;
 import com.jochen.bluetoothmanager.function.BluetoothScanCallback;
+import com.jochen.bluetoothmanager.function.ScanBatch;
 import com.jochen.bluetoothmanager.function.UUIDConfig;
 import com.jochen.bluetoothmanager.spp.SPPDevice;
 import com.jochen.bluetoothmanager.spp.SPPManager;
@@ -26,6 +27,7 @@ import com.jochen.demo.item.DeviceItem;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 
@@ -44,6 +46,9 @@ public class MainActivity extends AppCompatActivity {
     private static final String SERVICE_TX_UUID = "00000205-0000-1000-8000-00805F9B34FC";
     private static final String CHARACTERISTIC_RX_UUID = "00000207-0000-1000-8000-00805F9B34FC";
     private static final String CHARACTERISTIC_TX_UUID = "00000208-0000-1000-8000-00805F9B34FC";
+    // 搜索结果合并上报周期、设备丢失时间（毫秒）
+    private static final int SCAN_BATCH_INTERVAL = 250;
+    private static final int SCAN_LOST_TIMEOUT = 3000;
 
     private List<DeviceItem> deviceItems = new ArrayList<>();
     private DeviceAdapter mDeviceAdapter;
@@ -88,11 +93,27 @@ public class MainActivity extends AppCompatActivity {
                 BLEManager.getInstance().startScan(new BluetoothScanCallback(5000) {
                     @Override
                     public void onScanDevice(BaseDevice device) {
-                        LogUtils.i(TAG, device.toString());
-                        UUIDConfig uuidConfig = new UUIDConfig(SERVICE_RX_UUID, CHARACTERISTIC_RX_UUID, SERVICE_TX_UUID, CHARACTERISTIC_TX_UUID);
-                        device.setUUIDConfig(uuidConfig);
-                        deviceItems.add(new DeviceItem(DeviceItem.TYPE_NORMAL, device));
-                        refreshList();
+                        // 已开启合并上报，新设备在onScanBatch中处理
+                    }
+
+                    @Override
+                    protected void onScanBatch(ScanBatch batch) {
+                        LogUtils.i(TAG, batch.toString());
+                        for (BaseDevice device : batch.getNewDevices()) {
+                            UUIDConfig uuidConfig = new UUIDConfig(SERVICE_RX_UUID, CHARACTERISTIC_RX_UUID, SERVICE_TX_UUID, CHARACTERISTIC_TX_UUID);
+                            device.setUUIDConfig(uuidConfig);
+                            deviceItems.add(new DeviceItem(DeviceItem.TYPE_NORMAL, device));
+                        }
+                        if (batch.getLostCount() > 0) {
+                            Iterator<DeviceItem> iterator = deviceItems.iterator();
+                            while (iterator.hasNext()) {
+                                if (batch.getLostDevices().contains(iterator.next().device)) {
+                                    iterator.remove();
+                                }
+                            }
+                        }
+                        // 已在主线程，每个周期最多刷新一次
+                        safeRefresh();
                     }
 
                     @Override
@@ -116,7 +137,7 @@ public class MainActivity extends AppCompatActivity {
                             }
                         });
                     }
-                });
+                }.setBatchInterval(SCAN_BATCH_INTERVAL, SCAN_LOST_TIMEOUT));
             }
         });
 
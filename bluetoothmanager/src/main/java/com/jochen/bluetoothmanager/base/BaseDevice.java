@@ -1,20 +1,39 @@
 package com.jochen.bluetoothmanager.base;
 
 import android.bluetooth.BluetoothDevice;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.jochen.bluetoothmanager.ble.BLEManager;
 import com.jochen.bluetoothmanager.event.Event;
 import com.jochen.bluetoothmanager.event.EventCode;
 import com.jochen.bluetoothmanager.function.ConnectState;
+import com.jochen.bluetoothmanager.function.DispatchMode;
+import com.jochen.bluetoothmanager.function.OverflowPolicy;
+import com.jochen.bluetoothmanager.function.ReceiveBufferCallback;
 import com.jochen.bluetoothmanager.function.ReceiveDataCallback;
+import com.jochen.bluetoothmanager.function.ReceiveLeaseCallback;
+import com.jochen.bluetoothmanager.function.ResultFuture;
 import com.jochen.bluetoothmanager.function.UUIDConfig;
+import com.jochen.bluetoothmanager.function.WritePriority;
 import com.jochen.bluetoothmanager.spp.SPPManager;
+import com.jochen.bluetoothmanager.utils.BufferPool;
+import com.jochen.bluetoothmanager.utils.CallbackRegistry;
 import com.jochen.bluetoothmanager.utils.LogUtils;
+import com.jochen.bluetoothmanager.utils.PooledBuffer;
+import com.jochen.bluetoothmanager.utils.ProtocolUtils;
+import com.jochen.bluetoothmanager.utils.SerialExecutor;
+import com.jochen.bluetoothmanager.utils.TrafficCapture;
 
 import org.greenrobot.eventbus.EventBus;
+import org.reactivestreams.Publisher;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * 文件名：BaseDevice
@@ -23,18 +42,42 @@ import java.util.List;
  * 创建时间：2019/7/30
  */
 public abstract class BaseDevice {
+    // OverflowPolicy.SAMPLE默认抽样间隔
+    public static final int DEFAULT_SAMPLE_INTERVAL = 4;
+
     // true BLE; false SPP
     public boolean isBLE;
     // 系统蓝牙Model
     public BluetoothDevice device;
     // 信号强度
     public int rssi;
+    // 平滑后的信号强度，搜索时由ScanRegistry计算
+    public int smoothedRssi;
     // 连接状态
     public int connectionState = ConnectState.STATE_DISCONNECTED;
     // UUID配置
     protected UUIDConfig mUUIDConfig;
-    // 接收数据回调
-    private List<ReceiveDataCallback> receiveDataCallbackList = new ArrayList<>();
+    // 接收数据回调，在接收线程中分发，可在任意线程注册、解绑
+    private final CallbackRegistry<ReceiveDataCallback> receiveDataCallbackList = new CallbackRegistry<>(new ReceiveDataCallback[0]);
+    // 接收数据回调（ByteBuffer）
+    private final CallbackRegistry<ReceiveBufferCallback> receiveBufferCallbackList = new CallbackRegistry<>(new ReceiveBufferCallback[0]);
+    // 接收数据回调（租借缓存）
+    private final CallbackRegistry<ReceiveLeaseCallback> receiveLeaseCallbackList = new CallbackRegistry<>(new ReceiveLeaseCallback[0]);
+    // 接收数据分发模式
+    private int mDispatchMode = DispatchMode.BINDER;
+    // 接收数据分发执行器，DispatchMode.BINDER时为null
+    private volatile SerialExecutor mDispatcher;
+    // DispatchMode.DEDICATED时设备独占的分发线程
+    private ExecutorService mDedicatedExecutor;
+    // 有界接收队列，null表示不限制
+    private volatile InboundQueue mInboundQueue;
+    // 接收数据、连接状态的Publisher，首次获取时创建
+    private DevicePublisher<byte[]> mDataPublisher;
+    private volatile DevicePublisher<Integer> mStatePublisher;
+    // 收发数据抓包，null表示不抓包
+    private volatile TrafficCapture mTrafficCapture;
+    // 抓包记录中的6字节设备地址
+    private byte[] mAddressBytes;
 
     protected BaseDevice(boolean isBLE, BluetoothDevice device, UUIDConfig uuidConfig) {
         this.isBLE = isBLE;
@@ -61,7 +104,7 @@ public abstract class BaseDevice {
      */
     protected void setConnectState(int state) {
         if (state != connectionState) {
-            LogUtils.i("[" + device.getName() + "] 连接状态 " + connectionState + " -> " + state);
+            LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] 连接状态 " + connectionState + " -> " + state);
             connectionState = state;
             switch (state) {
                 case ConnectState.STATE_DISCONNECTED:
@@ -84,7 +127,57 @@ public abstract class BaseDevice {
                     break;
             }
             EventBus.getDefault().post(new Event<>(EventCode.ConnectionStateChangedCode, this));
+            DevicePublisher<Integer> statePublisher = mStatePublisher;
+            if (statePublisher != null) {
+                statePublisher.publish(state);
+            }
+        }
+    }
+
+    /**
+     * 接收数据的Publisher
+     * 数据在分发线程中发布，Subscriber未请求的数据最多缓存DevicePublisher.DEFAULT_BUFFER_SIZE个，超出时丢弃最早的数据
+     * 有Subscriber时才注册ReceiveDataCallback，没有Subscriber时不拷贝接收数据
+     *
+     * @return Publisher，数据为ReceiveDataCallback收到的byte[]
+     */
+    public synchronized Publisher<byte[]> getDataPublisher() {
+        if (mDataPublisher == null) {
+            mDataPublisher = new DevicePublisher<byte[]>(DevicePublisher.DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST, false) {
+                private final ReceiveDataCallback mCallback = new ReceiveDataCallback() {
+                    @Override
+                    public void onReceive(byte[] data) {
+                        publish(data);
+                    }
+                };
+
+                @Override
+                protected void onActive() {
+                    registerReceiveDataCallback(mCallback);
+                }
+
+                @Override
+                protected void onInactive() {
+                    unregisterReceiveDataCallback(mCallback);
+                }
+            };
         }
+        return mDataPublisher;
+    }
+
+    /**
+     * 连接状态的Publisher
+     * 订阅后先收到当前连接状态，之后收到每次变化，与EventCode.ConnectionStateChangedCode事件同步发出
+     *
+     * @return Publisher，数据为ConnectState
+     */
+    public synchronized Publisher<Integer> getStatePublisher() {
+        if (mStatePublisher == null) {
+            DevicePublisher<Integer> publisher = new DevicePublisher<>(DevicePublisher.DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST, true);
+            publisher.publish(connectionState);
+            mStatePublisher = publisher;
+        }
+        return mStatePublisher;
     }
 
     /**
@@ -99,17 +192,477 @@ public abstract class BaseDevice {
 
     /**
      * 写入数据
+     * 数据在调用时拷贝，返回后即可复用data
      *
      * @param data 代写入数据
+     * @return 数据是否交给发送通道
+     */
+    public boolean write(byte[] data) {
+        return !writeAsync(data).isFailed();
+    }
+
+    /**
+     * 异步写入数据，使用控制通道发送
+     * 返回的ResultFuture在数据真正发送完成后完成（BLE收到onCharacteristicWrite，SPP写入OutputStream），
+     * 结果为写入的字节数，可通过getLatencyNanos获取从调用到发送完成的耗时
+     *
+     * @param data 待写入数据
+     * @return 写入结果
+     */
+    public ResultFuture<Integer> writeAsync(byte[] data) {
+        return writeAsync(data, WritePriority.CONTROL);
+    }
+
+    /**
+     * 异步写入数据
+     * 控制通道的数据优先于已排队的批量数据发送，同一通道内按调用顺序发送
+     * 已开始发送的数据不会被打断
+     *
+     * @param data     待写入数据
+     * @param priority WritePriority
+     * @return 写入结果
+     */
+    public ResultFuture<Integer> writeAsync(byte[] data, int priority) {
+        return writeAsync(data, 0, data.length, priority);
+    }
+
+    /**
+     * 异步写入数组中的一段数据
+     * 数据在调用时拷贝，返回后即可复用data；需要零拷贝时使用writeAsync(ByteBuffer, int)
+     *
+     * @param data     数组
+     * @param offset   起始索引
+     * @param length   长度
+     * @param priority WritePriority
+     * @return 写入结果
+     */
+    public ResultFuture<Integer> writeAsync(byte[] data, int offset, int length, int priority) {
+        return writeAsync(ByteBuffer.wrap(Arrays.copyOfRange(data, offset, offset + length)), priority);
+    }
+
+    /**
+     * 写入ByteBuffer中[position, limit)的数据
+     *
+     * @param data 待写入数据
+     * @return 数据是否交给发送通道
+     */
+    public boolean write(ByteBuffer data) {
+        return !writeAsync(data, WritePriority.CONTROL).isFailed();
+    }
+
+    /**
+     * 异步写入ByteBuffer中[position, limit)的数据
+     * 不会改变data的position、limit，数据直接从data读取不做拷贝，ResultFuture完成前不能修改或复用其中的数据
+     * 堆内ByteBuffer及其slice不产生拷贝，DirectByteBuffer在写入系统接口时拷贝
+     *
+     * @param data     待写入数据
+     * @param priority WritePriority
+     * @return 写入结果
+     */
+    public abstract ResultFuture<Integer> writeAsync(ByteBuffer data, int priority);
+
+    /**
+     * 设置接收数据的分发模式
+     * 非DispatchMode.BINDER时数据交给分发线程后立即返回，耗时的解析不会阻塞GATT回调及SPP读取
+     * 切换时已交给原分发线程的数据先分发完，再分发新数据；切换到BINDER时不等待
+     *
+     * @param mode DispatchMode.BINDER、DispatchMode.MAIN 或 DispatchMode.DEDICATED
+     */
+    public void setDispatchMode(int mode) {
+        switch (mode) {
+            case DispatchMode.BINDER:
+                setDispatcher(mode, null, null);
+                break;
+            case DispatchMode.MAIN:
+                final Handler handler = new Handler(Looper.getMainLooper());
+                setDispatcher(mode, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        handler.post(command);
+                    }
+                }, null);
+                break;
+            case DispatchMode.DEDICATED:
+                ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "Dispatch-" + device.getAddress());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                setDispatcher(mode, executor, executor);
+                break;
+            default:
+                throw new IllegalArgumentException("dispatch mode: " + mode);
+        }
+    }
+
+    /**
+     * 在指定的Executor中分发接收数据，数据仍按接收顺序串行分发
+     *
+     * @param executor 分发Executor，由调用者管理生命周期
      */
-    public abstract boolean write(byte[] data);
+    public void setDispatchExecutor(Executor executor) {
+        setDispatcher(DispatchMode.CUSTOM, executor, null);
+    }
+
+    /**
+     * 切换分发执行器
+     * 新执行器接在原执行器之后：原执行器中已提交的数据在原线程中分发完之后，新执行器才开始分发，顺序不变
+     * 切换到DispatchMode.BINDER时新数据立即在接收线程中分发，可能先于原执行器中尚未分发的数据
+     */
+    private synchronized void setDispatcher(int mode, Executor executor, ExecutorService dedicated) {
+        LogUtils.i(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收数据分发 " + DispatchMode.toString(mDispatchMode) + " -> " + DispatchMode.toString(mode));
+        SerialExecutor previous = mDispatcher;
+        final ExecutorService previousDedicated = mDedicatedExecutor;
+        mDispatchMode = mode;
+        mDedicatedExecutor = dedicated;
+        mDispatcher = executor == null ? null : new SerialExecutor(executor, previous);
+        if (previousDedicated != null) {
+            if (previous == null) {
+                previousDedicated.shutdown();
+            } else {
+                // 原执行器分发完已提交的数据后再关闭独占线程
+                previous.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        previousDedicated.shutdown();
+                    }
+                });
+            }
+        }
+    }
+
+    public synchronized int getDispatchMode() {
+        return mDispatchMode;
+    }
+
+    /**
+     * 等待分发的接收数据数，DispatchMode.BINDER时为0
+     */
+    public int getDispatchQueueDepth() {
+        SerialExecutor dispatcher = mDispatcher;
+        return dispatcher == null ? 0 : dispatcher.getQueueDepth();
+    }
+
+    /**
+     * 接收数据从接收线程交给分发线程的平均等待时间（纳秒），DispatchMode.BINDER时为0
+     */
+    public long getDispatchLatencyNanos() {
+        SerialExecutor dispatcher = mDispatcher;
+        return dispatcher == null ? 0 : dispatcher.getAverageLatencyNanos();
+    }
+
+    /**
+     * 限制等待分发的接收数据数量
+     * 仅在DispatchMode不为BINDER时生效；OverflowPolicy.BLOCK会阻塞接收线程，BLE为GATT回调线程，请谨慎使用
+     *
+     * @param capacity 队列容量，小于等于0表示不限制
+     * @param policy   OverflowPolicy
+     */
+    public void setInboundQueue(int capacity, int policy) {
+        setInboundQueue(capacity, policy, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * 限制等待分发的接收数据数量
+     *
+     * @param capacity       队列容量，小于等于0表示不限制
+     * @param policy         OverflowPolicy
+     * @param sampleInterval OverflowPolicy.SAMPLE时，队列超过一半后每sampleInterval个数据入队一个
+     */
+    public void setInboundQueue(int capacity, int policy, int sampleInterval) {
+        LogUtils.i(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收队列 容量: " + capacity + " 策略: " + OverflowPolicy.toString(policy));
+        mInboundQueue = capacity <= 0 ? null : new InboundQueue(capacity, policy, sampleInterval);
+    }
+
+    /**
+     * 接收队列中等待分发的数据数，未限制时为0
+     */
+    public int getInboundQueueSize() {
+        InboundQueue inboundQueue = mInboundQueue;
+        return inboundQueue == null ? 0 : inboundQueue.size();
+    }
+
+    /**
+     * 当前接收队列累计入队数，未限制时为0
+     */
+    public long getInboundQueuedCount() {
+        InboundQueue inboundQueue = mInboundQueue;
+        return inboundQueue == null ? 0 : inboundQueue.getQueuedCount();
+    }
+
+    /**
+     * 当前接收队列累计丢弃数，未限制时为0
+     */
+    public long getInboundDroppedCount() {
+        InboundQueue inboundQueue = mInboundQueue;
+        return inboundQueue == null ? 0 : inboundQueue.getDroppedCount();
+    }
+
+    /**
+     * 分发执行器，可获取最大排队数、最大等待时间等统计数据，DispatchMode.BINDER时为null
+     */
+    public SerialExecutor getDispatcher() {
+        return mDispatcher;
+    }
 
     /**
      * 设备发送的数据的数据
      * @param data 设备发送的原始数据
      */
-    protected void receive(byte[] data) {
-        for (ReceiveDataCallback receiveDataCallback: receiveDataCallbackList) {
+    protected void receive(final byte[] data) {
+        SerialExecutor dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            deliver(data);
+            return;
+        }
+        handOff(dispatcher, new InboundQueue.Item() {
+            @Override
+            public void deliver() {
+                BaseDevice.this.deliver(data);
+            }
+
+            @Override
+            public void discard() {
+                // byte[]由GC回收
+            }
+        });
+    }
+
+    /**
+     * 设备发送的数据的数据
+     * ReceiveBufferCallback直接收到data，ReceiveDataCallback收到的byte[]在有需要时才拷贝，且只拷贝一次
+     * 交给分发线程时data拷贝到缓存池中
+     *
+     * @param data 设备发送的原始数据[position, limit)，回调结束后可以复用
+     */
+    protected void receive(ByteBuffer data) {
+        SerialExecutor dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            deliver(data);
+            return;
+        }
+        deliverLater(dispatcher, copyToLease(data));
+    }
+
+    /**
+     * 设备发送的数据的数据
+     * ReceiveLeaseCallback租借data本身，ReceiveBufferCallback收到data的视图，
+     * ReceiveDataCallback收到一份拷贝；交给分发线程时retain，不拷贝
+     *
+     * @param data 设备发送的原始数据，调用者仍持有自己的引用，回调结束后由调用者release
+     */
+    protected void receive(PooledBuffer data) {
+        SerialExecutor dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            deliver(data);
+            return;
+        }
+        deliverLater(dispatcher, data.retain());
+    }
+
+    /**
+     * 在分发线程中分发，分发完成或被丢弃后release
+     */
+    private void deliverLater(SerialExecutor dispatcher, final PooledBuffer data) {
+        handOff(dispatcher, new InboundQueue.Item() {
+            @Override
+            public void deliver() {
+                try {
+                    BaseDevice.this.deliver(data);
+                } finally {
+                    data.release();
+                }
+            }
+
+            @Override
+            public void discard() {
+                data.release();
+            }
+        });
+    }
+
+    /**
+     * 设置收发数据抓包
+     * 同一个TrafficCapture可以由多个设备共用，记录中带有设备地址
+     *
+     * @param capture TrafficCapture，null停止抓包（不会关闭capture）
+     */
+    public void setTrafficCapture(TrafficCapture capture) {
+        mTrafficCapture = capture;
+    }
+
+    public TrafficCapture getTrafficCapture() {
+        return mTrafficCapture;
+    }
+
+    /**
+     * 记录收发数据，子类在实际发送、接收数据处调用
+     *
+     * @param direction TrafficCapture.DIRECTION_SENT 或 DIRECTION_RECEIVED
+     * @param data      数据[position, limit)，不改变position
+     */
+    protected void capture(int direction, ByteBuffer data) {
+        TrafficCapture capture = mTrafficCapture;
+        if (capture != null) {
+            capture.record(direction, isBLE, getAddressBytes(), data);
+        }
+    }
+
+    /**
+     * 记录收发数据，子类在实际发送、接收数据处调用
+     *
+     * @param direction TrafficCapture.DIRECTION_SENT 或 DIRECTION_RECEIVED
+     * @param data      数组
+     * @param offset    起始索引
+     * @param length    长度
+     */
+    protected void capture(int direction, byte[] data, int offset, int length) {
+        TrafficCapture capture = mTrafficCapture;
+        if (capture != null) {
+            capture.record(direction, isBLE, getAddressBytes(), data, offset, length);
+        }
+    }
+
+    /**
+     * 设备地址转换为6字节，只转换一次
+     */
+    private byte[] getAddressBytes() {
+        byte[] address = mAddressBytes;
+        if (address == null) {
+            address = new byte[6];
+            String str = device.getAddress();
+            if (str != null) {
+                byte[] bytes = ProtocolUtils.hexStrToBytes(str.replace(":", ""));
+                if (bytes != null && bytes.length == address.length) {
+                    address = bytes;
+                }
+            }
+            mAddressBytes = address;
+        }
+        return address;
+    }
+
+    /**
+     * 在接收数据的分发线程中执行任务，与接收数据保持顺序
+     * 子类将非默认通道的数据交给其他回调时使用
+     *
+     * @param task 任务
+     */
+    protected void dispatch(final Runnable task) {
+        SerialExecutor dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            task.run();
+            return;
+        }
+        handOff(dispatcher, new InboundQueue.Item() {
+            @Override
+            public void deliver() {
+                task.run();
+            }
+
+            @Override
+            public void discard() {
+                // 无需释放
+            }
+        });
+    }
+
+    /**
+     * 交给分发线程，设置了接收队列时经过接收队列
+     */
+    private void handOff(SerialExecutor dispatcher, final InboundQueue.Item item) {
+        InboundQueue inboundQueue = mInboundQueue;
+        if (inboundQueue != null) {
+            inboundQueue.offer(dispatcher, item);
+            return;
+        }
+        dispatcher.execute(new Runnable() {
+            @Override
+            public void run() {
+                item.deliver();
+            }
+        });
+    }
+
+    private static PooledBuffer copyToLease(ByteBuffer data) {
+        int length = data.remaining();
+        PooledBuffer lease = BufferPool.getDefault().acquire(length);
+        data.duplicate().get(lease.array(), 0, length);
+        lease.setLength(length);
+        return lease;
+    }
+
+    /**
+     * 分发接收数据，data归本次接收所有
+     */
+    private void deliver(byte[] data) {
+        if (!receiveLeaseCallbackList.isEmpty()) {
+            // data归本次接收所有，直接包装，不拷贝
+            PooledBuffer lease = PooledBuffer.wrap(data);
+            dispatchLease(lease);
+            lease.release();
+        }
+        if (!receiveBufferCallbackList.isEmpty()) {
+            dispatchBuffer(ByteBuffer.wrap(data));
+        }
+        dispatchBytes(data);
+    }
+
+    /**
+     * 分发接收数据
+     * ReceiveBufferCallback直接收到data，ReceiveDataCallback收到的byte[]在有需要时才拷贝，且只拷贝一次
+     */
+    private void deliver(ByteBuffer data) {
+        if (!receiveLeaseCallbackList.isEmpty()) {
+            PooledBuffer lease = copyToLease(data);
+            dispatchLease(lease);
+            lease.release();
+        }
+        dispatchBuffer(data);
+        if (!receiveDataCallbackList.isEmpty()) {
+            // data在回调结束后会被调用者复用，ReceiveDataCallback可能保留byte[]（如DevicePublisher），必须拷贝
+            dispatchBytes(ProtocolUtils.toBytes(data));
+        }
+    }
+
+    /**
+     * 分发接收数据
+     * ReceiveLeaseCallback租借data本身，ReceiveBufferCallback收到data的视图，
+     * ReceiveDataCallback收到一份拷贝
+     */
+    private void deliver(PooledBuffer data) {
+        dispatchLease(data);
+        if (!receiveBufferCallbackList.isEmpty()) {
+            dispatchBuffer(data.asByteBuffer());
+        }
+        if (!receiveDataCallbackList.isEmpty()) {
+            dispatchBytes(data.copy());
+        }
+    }
+
+    private void dispatchLease(PooledBuffer data) {
+        for (ReceiveLeaseCallback receiveLeaseCallback : receiveLeaseCallbackList.snapshot()) {
+            // 每个监听者各持有一个引用，由监听者release
+            receiveLeaseCallback.onReceive(data.retain());
+        }
+    }
+
+    private void dispatchBuffer(ByteBuffer data) {
+        int position = data.position();
+        int limit = data.limit();
+        for (ReceiveBufferCallback receiveBufferCallback : receiveBufferCallbackList.snapshot()) {
+            receiveBufferCallback.onReceive(data);
+            // 恢复position、limit，不影响下一个监听者
+            data.limit(limit);
+            data.position(position);
+        }
+    }
+
+    private void dispatchBytes(byte[] data) {
+        for (ReceiveDataCallback receiveDataCallback : receiveDataCallbackList.snapshot()) {
             receiveDataCallback.onReceive(data);
         }
     }
@@ -129,4 +682,37 @@ public abstract class BaseDevice {
     public boolean unregisterReceiveDataCallback(ReceiveDataCallback callback) {
         return receiveDataCallbackList.remove(callback);
     }
+
+    /**
+     * 注册设备响应数据的监听者（ByteBuffer）
+     * @param callback 设备数据回调
+     */
+    public void registerReceiveBufferCallback(ReceiveBufferCallback callback) {
+        receiveBufferCallbackList.add(callback);
+    }
+
+    /**
+     * 解绑设备响应数据的监听者（ByteBuffer）
+     * @param callback 设备数据回调
+     */
+    public boolean unregisterReceiveBufferCallback(ReceiveBufferCallback callback) {
+        return receiveBufferCallbackList.remove(callback);
+    }
+
+    /**
+     * 注册设备响应数据的监听者（租借缓存）
+     * 监听者收到的PooledBuffer处理完后必须release
+     * @param callback 设备数据回调
+     */
+    public void registerReceiveLeaseCallback(ReceiveLeaseCallback callback) {
+        receiveLeaseCallbackList.add(callback);
+    }
+
+    /**
+     * 解绑设备响应数据的监听者（租借缓存）
+     * @param callback 设备数据回调
+     */
+    public boolean unregisterReceiveLeaseCallback(ReceiveLeaseCallback callback) {
+        return receiveLeaseCallbackList.remove(callback);
+    }
 }
@@ -7,11 +7,11 @@ import com.jochen.bluetoothmanager.ble.BLEDevice;
 import com.jochen.bluetoothmanager.function.BluetoothScanCallback;
 import com.jochen.bluetoothmanager.spp.SPPDevice;
 import com.jochen.bluetoothmanager.utils.BluetoothUtils;
+import com.jochen.bluetoothmanager.utils.HashedWheelTimer;
 import com.jochen.bluetoothmanager.utils.LogUtils;
+import com.jochen.bluetoothmanager.utils.TimerUtils;
 
 import java.util.HashMap;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * 文件名：BluetoothManager
@@ -28,10 +28,8 @@ public abstract class BluetoothManager {
     private final HashMap<String, BaseDevice> connectedDevices = new HashMap<>();
     // 蓝牙搜索回调
     private BluetoothScanCallback bluetoothScanCallback = null;
-    // 蓝牙搜索Timer
-    private Timer mScanTimer = new Timer();
-    // 蓝牙搜索超时task
-    private TimerTask mScanTimerTask;
+    // 搜索超时任务
+    private HashedWheelTimer.Timeout mScanTimerTask;
 
     private String TAG() {
         return isBLE ? "BLEManager" : "SPPManager";
@@ -145,28 +143,27 @@ public abstract class BluetoothManager {
     public boolean startScan(BluetoothScanCallback callback) {
         if (null == bluetoothScanCallback) {
             bluetoothScanCallback = callback;
-            LogUtils.d("[" + TAG() + "] 搜索开始");
+            LogUtils.d(LogUtils.CATEGORY_SCAN, "[" + TAG() + "] 搜索开始");
             callback.reset();
             boolean result = startScanFunction(callback);
             if (result) {
                 //开启成功，开启超时定时器
                 int timeout = bluetoothScanCallback.getScanTimeOut();
                 if (timeout > 0) {
-                    mScanTimerTask = new TimerTask() {
+                    mScanTimerTask = TimerUtils.schedule(new Runnable() {
                         @Override
                         public void run() {
                             if (null != bluetoothScanCallback) {
                                 bluetoothScanCallback.onScanTimeout();
                                 stopScan();
-                                LogUtils.d("[" + TAG() + "] 搜索超时");
+                                LogUtils.d(LogUtils.CATEGORY_SCAN, "[" + TAG() + "] 搜索超时");
                             }
                         }
-                    };
-                    mScanTimer.schedule(mScanTimerTask, timeout);
+                    }, timeout);
                 }
             } else {
                 // 开启失败
-                LogUtils.d("[" + TAG() + "] 开启搜索失败");
+                LogUtils.d(LogUtils.CATEGORY_SCAN, "[" + TAG() + "] 开启搜索失败");
                 bluetoothScanCallback.onScanCancel();
                 bluetoothScanCallback = null;
             }
@@ -199,7 +196,7 @@ public abstract class BluetoothManager {
         if (null != bluetoothScanCallback) {
             bluetoothScanCallback.onScanCancel();
             stopScan();
-            LogUtils.d("[" + TAG() + "] 搜索取消");
+            LogUtils.d(LogUtils.CATEGORY_SCAN, "[" + TAG() + "] 搜索取消");
         }
     }
 }
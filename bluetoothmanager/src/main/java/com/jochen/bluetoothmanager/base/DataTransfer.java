@@ -0,0 +1,294 @@
+package com.jochen.bluetoothmanager.base;
+
+import com.jochen.bluetoothmanager.function.ResultCallback;
+import com.jochen.bluetoothmanager.function.ResultFuture;
+import com.jochen.bluetoothmanager.function.TransferCallback;
+import com.jochen.bluetoothmanager.function.WritePriority;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+import com.jochen.bluetoothmanager.utils.SerialExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 文件名：DataTransfer
+ * 描述：大数据传输（固件、校准表等）
+ * 数据源为FileChannel时分段内存映射，为InputStream时流式读取，不会将整个文件读入内存
+ * 同时在发送中的分块数不超过窗口大小，分块以WritePriority.BULK发送
+ * FileChannel的分块直接是映射内存的slice，不经过中间数组；InputStream的分块缓存循环复用
+ * 读取、映射文件在共用的读取线程中进行（每个传输串行），不会阻塞发送完成回调所在的GATT回调线程
+ *
+ * DataTransfer transfer = new DataTransfer(device, fileChannel);
+ * transfer.setCallback(callback);
+ * ResultFuture<Long> future = transfer.start();
+ *
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class DataTransfer {
+    // 默认分块大小
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+    // 默认窗口大小（同时在发送中的分块数）
+    public static final int DEFAULT_WINDOW = 4;
+    // 内存映射分段大小
+    private static final long MAP_SEGMENT_SIZE = 8 * 1024 * 1024;
+    // 所有传输共用的读取线程池，空闲线程超时后回收
+    private static final ExecutorService READ_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "DataTransfer-Read");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final BaseDevice mDevice;
+    // 数据源
+    private final FileChannel mChannel;
+    private final InputStream mInputStream;
+    // 总长度，未知时为-1
+    private final long mTotal;
+    // 传输配置
+    private int mChunkSize = DEFAULT_CHUNK_SIZE;
+    private int mWindow = DEFAULT_WINDOW;
+    private TransferCallback mCallback;
+
+    // 传输状态
+    private final ResultFuture<Long> mFuture = new ResultFuture<>();
+    // InputStream的空闲分块缓存
+    private final ArrayDeque<byte[]> mFreeChunks = new ArrayDeque<>();
+    private boolean mStarted;
+    private boolean mEOF;
+    private int mInFlight;
+    // 已发送完成字节数
+    private long mTransferred;
+    // 读取任务串行执行，以下读取状态只在读取任务中访问
+    private final SerialExecutor mReader = new SerialExecutor(READ_EXECUTOR);
+    private final Runnable mPumpTask = new Runnable() {
+        @Override
+        public void run() {
+            pump();
+        }
+    };
+    // 当前内存映射分段
+    private MappedByteBuffer mSegment;
+    private long mSegmentEnd;
+
+    /**
+     * 传输FileChannel中当前position至文件末尾的数据
+     *
+     * @param device  目标设备
+     * @param channel 文件，传输结束后不会关闭
+     */
+    public DataTransfer(BaseDevice device, FileChannel channel) throws IOException {
+        mDevice = device;
+        mChannel = channel;
+        mInputStream = null;
+        mSegmentEnd = channel.position();
+        mTotal = channel.size() - mSegmentEnd;
+    }
+
+    /**
+     * 传输InputStream中的数据
+     *
+     * @param device      目标设备
+     * @param inputStream 数据流，传输结束后不会关闭
+     * @param length      总长度，用于进度回调，未知时传-1
+     */
+    public DataTransfer(BaseDevice device, InputStream inputStream, long length) {
+        mDevice = device;
+        mChannel = null;
+        mInputStream = inputStream;
+        mTotal = length;
+    }
+
+    /**
+     * 设置分块大小
+     * BLE设备的分块会按MTU再分包发送
+     *
+     * @param chunkSize 字节
+     * @return this
+     */
+    public DataTransfer setChunkSize(int chunkSize) {
+        mChunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    /**
+     * 设置窗口大小
+     *
+     * @param window 同时在发送中的分块数
+     * @return this
+     */
+    public DataTransfer setWindow(int window) {
+        mWindow = Math.max(1, window);
+        return this;
+    }
+
+    public DataTransfer setCallback(TransferCallback callback) {
+        mCallback = callback;
+        return this;
+    }
+
+    /**
+     * 开始传输
+     *
+     * @return 传输结果，成功时为发送的总字节数
+     */
+    public ResultFuture<Long> start() {
+        synchronized (this) {
+            if (mStarted) {
+                return mFuture;
+            }
+            mStarted = true;
+            for (int i = 0; mInputStream != null && i < mWindow; i++) {
+                mFreeChunks.add(new byte[mChunkSize]);
+            }
+        }
+        mReader.execute(mPumpTask);
+        return mFuture;
+    }
+
+    /**
+     * 取消传输，已在发送中的分块仍会发送
+     */
+    public void cancel() {
+        mFuture.setFailure(new CancellationException());
+    }
+
+    /**
+     * 已发送完成的字节数
+     */
+    public synchronized long getTransferred() {
+        return mTransferred;
+    }
+
+    public long getTotal() {
+        return mTotal;
+    }
+
+    /**
+     * 在窗口允许的范围内读取并发送分块，在读取线程中执行
+     * 读取时不持有锁，发送完成回调和getTransferred不会被文件I/O阻塞
+     */
+    private void pump() {
+        while (true) {
+            synchronized (this) {
+                if (mFuture.isDone() || mEOF || mInFlight >= mWindow) {
+                    checkComplete();
+                    return;
+                }
+                // 先占用窗口，保证InputStream有空闲分块缓存
+                mInFlight++;
+            }
+            ByteBuffer chunk;
+            try {
+                chunk = read();
+            } catch (IOException e) {
+                LogUtils.e(LogUtils.CATEGORY_DATA, "[" + mDevice.device.getName() + "] 读取传输数据失败", e);
+                synchronized (this) {
+                    mInFlight--;
+                }
+                mFuture.setFailure(e);
+                return;
+            }
+            if (chunk == null) {
+                synchronized (this) {
+                    mInFlight--;
+                    mEOF = true;
+                    checkComplete();
+                }
+                return;
+            }
+            send(chunk);
+        }
+    }
+
+    private void send(final ByteBuffer chunk) {
+        final int length = chunk.remaining();
+        mDevice.writeAsync(chunk, WritePriority.BULK).addCallback(new ResultCallback<Integer>() {
+            @Override
+            public void onComplete(ResultFuture<Integer> future) {
+                long transferred;
+                synchronized (DataTransfer.this) {
+                    mInFlight--;
+                    if (mInputStream != null) {
+                        mFreeChunks.add(chunk.array());
+                    }
+                    if (future.isSuccess()) {
+                        mTransferred += length;
+                    }
+                    transferred = mTransferred;
+                }
+                if (!future.isSuccess()) {
+                    mFuture.setFailure(future.getCause());
+                    return;
+                }
+                if (mCallback != null) {
+                    mCallback.onProgress(transferred, mTotal);
+                }
+                mReader.execute(mPumpTask);
+            }
+        });
+    }
+
+    /**
+     * 数据读完且所有分块发送完成，需持有锁
+     */
+    private void checkComplete() {
+        if (mEOF && mInFlight == 0) {
+            mFuture.setResult(mTransferred);
+        }
+    }
+
+    /**
+     * 读取一个分块，只在读取任务中调用
+     *
+     * @return 分块数据，null表示数据已读完
+     */
+    private ByteBuffer read() throws IOException {
+        if (mChannel != null) {
+            if (mSegment == null || !mSegment.hasRemaining()) {
+                long size = mChannel.size();
+                if (mSegmentEnd >= size) {
+                    return null;
+                }
+                long segmentSize = Math.min(MAP_SEGMENT_SIZE, size - mSegmentEnd);
+                mSegment = mChannel.map(FileChannel.MapMode.READ_ONLY, mSegmentEnd, segmentSize);
+                mSegmentEnd += segmentSize;
+            }
+            int length = Math.min(mChunkSize, mSegment.remaining());
+            ByteBuffer chunk = mSegment.slice();
+            chunk.limit(length);
+            mSegment.position(mSegment.position() + length);
+            return chunk;
+        }
+        byte[] chunk;
+        synchronized (this) {
+            chunk = mFreeChunks.poll();
+        }
+        int length = 0;
+        while (length < chunk.length) {
+            int read = mInputStream.read(chunk, length, chunk.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        if (length <= 0) {
+            synchronized (this) {
+                mFreeChunks.add(chunk);
+            }
+            return null;
+        }
+        return ByteBuffer.wrap(chunk, 0, length);
+    }
+}
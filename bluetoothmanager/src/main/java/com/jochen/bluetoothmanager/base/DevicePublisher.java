@@ -0,0 +1,246 @@
+package com.jochen.bluetoothmanager.base;
+
+import com.jochen.bluetoothmanager.function.OverflowPolicy;
+import com.jochen.bluetoothmanager.utils.CallbackRegistry;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件名：DevicePublisher
+ * 描述：设备数据、连接状态的Reactive Streams Publisher
+ * 多个Subscriber共享同一数据源，每个Subscriber按自己request(n)的数量接收；
+ * 数据源不能暂停，Subscriber未请求的数据缓存在各自的有界队列中，队列满时按OverflowPolicy丢弃
+ * 信号在publish或request的调用线程中发出，同一Subscriber的信号不会并发
+ * 订阅与发布互斥地入队，新的Subscriber收到的最近一次数据与之后发布的数据保持顺序、不重复
+ * 子类可通过onActive、onInactive在有无Subscriber时注册、解绑数据源
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class DevicePublisher<T> implements Publisher<T> {
+    // 默认每个Subscriber的缓存数量
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final int mBufferSize;
+    private final int mPolicy;
+    // 新的Subscriber是否先收到最近一次的数据（连接状态）
+    private final boolean mReplayLatest;
+    @SuppressWarnings("unchecked")
+    private final CallbackRegistry<DeviceSubscription<T>> mSubscriptions = new CallbackRegistry<>((DeviceSubscription<T>[]) new DeviceSubscription<?>[0]);
+    // 所有Subscriber因缓存满丢弃的累计数量
+    private final AtomicLong mDropped = new AtomicLong();
+    // 最近一次的数据，持有锁访问
+    private T mLatest;
+
+    /**
+     * @param bufferSize   每个Subscriber的缓存数量
+     * @param policy       缓存满时的处理策略，OverflowPolicy.DROP_OLDEST 或 OverflowPolicy.DROP_NEWEST
+     * @param replayLatest 新的Subscriber是否先收到最近一次的数据
+     */
+    public DevicePublisher(int bufferSize, int policy, boolean replayLatest) {
+        if (policy != OverflowPolicy.DROP_OLDEST && policy != OverflowPolicy.DROP_NEWEST) {
+            throw new IllegalArgumentException("unsupported policy: " + OverflowPolicy.toString(policy));
+        }
+        mBufferSize = Math.max(1, bufferSize);
+        mPolicy = policy;
+        mReplayLatest = replayLatest;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber is null");
+        }
+        DeviceSubscription<T> subscription = new DeviceSubscription<>(this, subscriber);
+        subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            if (subscription.cancelled) {
+                return;
+            }
+            mSubscriptions.add(subscription);
+            if (mSubscriptions.size() == 1) {
+                onActive();
+            }
+            if (mReplayLatest && mLatest != null) {
+                subscription.enqueue(mLatest);
+            }
+        }
+        subscription.drain();
+    }
+
+    /**
+     * 发布数据
+     *
+     * @param item 数据，所有Subscriber共享同一对象
+     */
+    public void publish(T item) {
+        DeviceSubscription<T>[] subscriptions;
+        synchronized (this) {
+            if (mReplayLatest) {
+                mLatest = item;
+            }
+            subscriptions = mSubscriptions.snapshot();
+            for (DeviceSubscription<T> subscription : subscriptions) {
+                subscription.enqueue(item);
+            }
+        }
+        // 在锁外发出信号，Subscriber中可以订阅、取消
+        for (DeviceSubscription<T> subscription : subscriptions) {
+            subscription.drain();
+        }
+    }
+
+    /**
+     * 是否有Subscriber
+     */
+    public boolean hasSubscribers() {
+        return !mSubscriptions.isEmpty();
+    }
+
+    /**
+     * 有了第一个Subscriber，持有锁调用，不能在其中发布数据
+     */
+    protected void onActive() {
+    }
+
+    /**
+     * 最后一个Subscriber已取消，持有锁调用，不能在其中发布数据
+     */
+    protected void onInactive() {
+    }
+
+    private synchronized void remove(DeviceSubscription<T> subscription) {
+        if (mSubscriptions.remove(subscription) && mSubscriptions.isEmpty()) {
+            onInactive();
+        }
+    }
+
+    /**
+     * 因Subscriber处理不及时丢弃的数据数
+     */
+    public long getDroppedCount() {
+        return mDropped.get();
+    }
+
+    /**
+     * 每个Subscriber的订阅
+     */
+    private static final class DeviceSubscription<T> implements Subscription {
+        private final DevicePublisher<T> mParent;
+        private final Subscriber<? super T> mSubscriber;
+        // 已发布未发出的数据
+        private final ArrayDeque<T> mQueue = new ArrayDeque<>();
+        // 未满足的请求数
+        private final AtomicLong mRequested = new AtomicLong();
+        // 保证drain只在一个线程中执行
+        private final AtomicInteger mWip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable mError;
+
+        DeviceSubscription(DevicePublisher<T> parent, Subscriber<? super T> subscriber) {
+            mParent = parent;
+            mSubscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Reactive Streams §3.9
+                mError = new IllegalArgumentException("§3.9 non-positive request: " + n);
+            } else {
+                while (true) {
+                    long current = mRequested.get();
+                    long next = current + n;
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                    if (mRequested.compareAndSet(current, next)) {
+                        break;
+                    }
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                mParent.remove(this);
+                synchronized (mQueue) {
+                    mQueue.clear();
+                }
+            }
+        }
+
+        /**
+         * 放入缓存，由发布者持有锁调用，之后需调用drain发出
+         */
+        void enqueue(T item) {
+            if (cancelled) {
+                return;
+            }
+            synchronized (mQueue) {
+                if (mQueue.size() >= mParent.mBufferSize) {
+                    mParent.mDropped.incrementAndGet();
+                    if (mParent.mPolicy == OverflowPolicy.DROP_NEWEST) {
+                        return;
+                    }
+                    mQueue.pollFirst();
+                }
+                mQueue.addLast(item);
+            }
+        }
+
+        void drain() {
+            if (mWip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long requested = mRequested.get();
+                long emitted = 0;
+                while (true) {
+                    if (cancelled) {
+                        return;
+                    }
+                    Throwable error = mError;
+                    if (error != null) {
+                        cancel();
+                        mSubscriber.onError(error);
+                        return;
+                    }
+                    if (emitted == requested) {
+                        break;
+                    }
+                    T item;
+                    synchronized (mQueue) {
+                        item = mQueue.pollFirst();
+                    }
+                    if (item == null) {
+                        break;
+                    }
+                    try {
+                        mSubscriber.onNext(item);
+                    } catch (RuntimeException e) {
+                        // Reactive Streams §2.13，Subscriber异常视为取消
+                        LogUtils.e(LogUtils.CATEGORY_DATA, "Subscriber onNext exception, cancel", e);
+                        cancel();
+                        return;
+                    }
+                    emitted++;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    mRequested.addAndGet(-emitted);
+                }
+                missed = mWip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.jochen.bluetoothmanager.base;
+
+import com.jochen.bluetoothmanager.function.OverflowPolicy;
+import com.jochen.bluetoothmanager.utils.SerialExecutor;
+
+import java.util.ArrayDeque;
+
+/**
+ * 文件名：InboundQueue
+ * 描述：有界接收队列
+ * 接收线程将数据放入队列后交给分发执行器，分发执行器按顺序从队首取出分发；
+ * 队列已满时按OverflowPolicy阻塞接收线程或丢弃数据，被丢弃的数据会立即释放
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+class InboundQueue {
+    /**
+     * 队列中的数据
+     */
+    interface Item {
+        /**
+         * 在分发线程中分发，分发完成后释放数据
+         */
+        void deliver();
+
+        /**
+         * 被丢弃，释放数据
+         */
+        void discard();
+    }
+
+    // 分发任务每轮最多连续分发的数据数，超出后重新提交，避免长时间占用分发线程
+    private static final int DRAIN_BATCH = 64;
+
+    private final int mCapacity;
+    private final int mPolicy;
+    private final int mSampleInterval;
+    private final ArrayDeque<Item> mItems = new ArrayDeque<>();
+    // 是否已提交分发任务，队列中的数据由同一个分发任务依次分发
+    private boolean mDrainScheduled;
+    // 最近一次offer的分发执行器，分发任务重新提交时使用
+    private SerialExecutor mDispatcher;
+    // 从队首依次取出数据分发，直到队列为空
+    private final Runnable mDeliverNext = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Item item;
+                synchronized (InboundQueue.this) {
+                    item = mItems.pollFirst();
+                    if (item == null) {
+                        mDrainScheduled = false;
+                        return;
+                    }
+                    InboundQueue.this.notifyAll();
+                }
+                boolean delivered = false;
+                try {
+                    item.deliver();
+                    delivered = true;
+                } finally {
+                    if (!delivered) {
+                        // 分发异常时保证剩余数据继续分发
+                        resubmit();
+                    }
+                }
+            }
+            resubmit();
+        }
+    };
+
+    // 累计入队数
+    private long mQueuedCount;
+    // 累计丢弃数
+    private long mDroppedCount;
+    private int mSampleCounter;
+
+    InboundQueue(int capacity, int policy, int sampleInterval) {
+        mCapacity = Math.max(1, capacity);
+        mPolicy = policy;
+        mSampleInterval = Math.max(1, sampleInterval);
+    }
+
+    /**
+     * 放入数据并交给分发执行器
+     * 只在队列由空变为非空时提交分发任务，队列中同时最多只有一个分发任务
+     *
+     * @param dispatcher 分发执行器
+     * @param item       数据
+     */
+    void offer(SerialExecutor dispatcher, Item item) {
+        synchronized (this) {
+            if (!admit(item)) {
+                return;
+            }
+            mItems.addLast(item);
+            mQueuedCount++;
+            mDispatcher = dispatcher;
+            if (mDrainScheduled) {
+                return;
+            }
+            mDrainScheduled = true;
+        }
+        dispatcher.execute(mDeliverNext);
+    }
+
+    /**
+     * 分发任务重新提交到最近一次offer的分发执行器
+     */
+    private void resubmit() {
+        SerialExecutor dispatcher;
+        synchronized (this) {
+            if (mItems.isEmpty()) {
+                mDrainScheduled = false;
+                return;
+            }
+            dispatcher = mDispatcher;
+        }
+        dispatcher.execute(mDeliverNext);
+    }
+
+    synchronized int size() {
+        return mItems.size();
+    }
+
+    int getCapacity() {
+        return mCapacity;
+    }
+
+    int getPolicy() {
+        return mPolicy;
+    }
+
+    synchronized long getQueuedCount() {
+        return mQueuedCount;
+    }
+
+    synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * 判断数据能否入队，需持有锁
+     */
+    private boolean admit(Item item) {
+        if (mPolicy == OverflowPolicy.SAMPLE && mItems.size() >= (mCapacity + 1) / 2) {
+            if (mSampleCounter++ % mSampleInterval != 0) {
+                drop(item);
+                return false;
+            }
+        } else {
+            mSampleCounter = 0;
+        }
+        while (mItems.size() >= mCapacity) {
+            switch (mPolicy) {
+                case OverflowPolicy.BLOCK:
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        drop(item);
+                        return false;
+                    }
+                    break;
+                case OverflowPolicy.DROP_OLDEST:
+                    drop(mItems.pollFirst());
+                    break;
+                default:
+                    drop(item);
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void drop(Item item) {
+        item.discard();
+        mDroppedCount++;
+    }
+}
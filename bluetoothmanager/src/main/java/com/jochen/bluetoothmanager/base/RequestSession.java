@@ -0,0 +1,170 @@
+package com.jochen.bluetoothmanager.base;
+
+import android.util.Log;
+
+import com.jochen.bluetoothmanager.frame.FrameCallback;
+import com.jochen.bluetoothmanager.function.KeyExtractor;
+import com.jochen.bluetoothmanager.function.ReceiveBufferCallback;
+import com.jochen.bluetoothmanager.function.ResultCallback;
+import com.jochen.bluetoothmanager.function.ResultFuture;
+import com.jochen.bluetoothmanager.function.WritePriority;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+import com.jochen.bluetoothmanager.utils.ProtocolUtils;
+import com.jochen.bluetoothmanager.utils.HashedWheelTimer;
+import com.jochen.bluetoothmanager.utils.TimerUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 文件名：RequestSession
+ * 描述：请求/响应关联
+ * 发送请求时以关联键登记，收到帧后由KeyExtractor提取关联键，完成对应请求的ResultFuture
+ * 同一设备可以同时有多个请求在等待响应（关联键不同），无需逐个等待
+ *
+ * RequestSession<Integer> session = new RequestSession<>(device, extractor);
+ * device.registerReceiveBufferCallback(new FrameAssembler(decoder, session));
+ * session.request(seq, command).addCallback(callback);
+ *
+ * 断开连接时请调用cancelAll
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class RequestSession<K> implements FrameCallback, ReceiveBufferCallback {
+    // 默认超时时间（毫秒）
+    public static final int DEFAULT_TIMEOUT = 3000;
+
+    private final BaseDevice mDevice;
+    private final KeyExtractor<K> mKeyExtractor;
+    private final ConcurrentHashMap<K, Pending> mPending = new ConcurrentHashMap<>();
+    // 未匹配到请求的帧
+    private volatile FrameCallback mUnmatchedCallback;
+
+    /**
+     * @param device       设备
+     * @param keyExtractor 关联键提取
+     */
+    public RequestSession(BaseDevice device, KeyExtractor<K> keyExtractor) {
+        mDevice = device;
+        mKeyExtractor = keyExtractor;
+    }
+
+    /**
+     * 设置未匹配到请求的帧（设备主动上报等）的回调
+     *
+     * @param callback 回调
+     * @return this
+     */
+    public RequestSession<K> setUnmatchedCallback(FrameCallback callback) {
+        mUnmatchedCallback = callback;
+        return this;
+    }
+
+    /**
+     * 发送请求，使用默认超时时间
+     * 数据在调用时拷贝，返回后即可复用data
+     *
+     * @param key  关联键
+     * @param data 请求数据
+     * @return 响应帧数据
+     */
+    public ResultFuture<byte[]> request(K key, byte[] data) {
+        return request(key, ByteBuffer.wrap(data.clone()), DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 发送请求
+     * 写入失败、超时或连接断开时ResultFuture失败；对返回的ResultFuture调用cancel会取消等待
+     *
+     * @param key     关联键，同一时刻不能有两个相同关联键的请求
+     * @param data    请求数据[position, limit)，不做拷贝，发送完成前不能修改
+     * @param timeout 从调用开始到收到响应的超时时间（毫秒），小于等于0则不超时
+     * @return 响应帧数据
+     */
+    public ResultFuture<byte[]> request(final K key, ByteBuffer data, int timeout) {
+        final Pending pending = new Pending();
+        if (mPending.putIfAbsent(key, pending) != null) {
+            return ResultFuture.failed(new IllegalStateException("request already pending, key: " + key));
+        }
+        pending.future.addCallback(new ResultCallback<byte[]>() {
+            @Override
+            public void onComplete(ResultFuture<byte[]> future) {
+                // 任何方式完成后移出等待表
+                mPending.remove(key, pending);
+                if (pending.timeoutTask != null) {
+                    pending.timeoutTask.cancel();
+                }
+            }
+        });
+        if (timeout > 0) {
+            pending.timeoutTask = TimerUtils.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    pending.future.setFailure(new TimeoutException("request timeout, key: " + key));
+                }
+            }, timeout);
+        }
+        mDevice.writeAsync(data, WritePriority.CONTROL).addCallback(new ResultCallback<Integer>() {
+            @Override
+            public void onComplete(ResultFuture<Integer> future) {
+                if (!future.isSuccess()) {
+                    pending.future.setFailure(future.getCause());
+                }
+            }
+        });
+        return pending.future;
+    }
+
+    /**
+     * 取消所有等待中的请求
+     */
+    public void cancelAll() {
+        List<Map.Entry<K, Pending>> pendings = new ArrayList<>(mPending.entrySet());
+        for (Map.Entry<K, Pending> entry : pendings) {
+            entry.getValue().future.setFailure(new IOException("request canceled, key: " + entry.getKey()));
+        }
+    }
+
+    /**
+     * 等待响应的请求数
+     */
+    public int getPendingCount() {
+        return mPending.size();
+    }
+
+    @Override
+    public void onReceive(ByteBuffer data) {
+        onFrame(data);
+    }
+
+    @Override
+    public void onFrame(ByteBuffer frame) {
+        K key = mKeyExtractor.getKey(frame);
+        Pending pending = key == null ? null : mPending.get(key);
+        if (pending != null) {
+            byte[] response = new byte[frame.remaining()];
+            frame.duplicate().get(response);
+            pending.future.setResult(response);
+            return;
+        }
+        FrameCallback unmatchedCallback = mUnmatchedCallback;
+        if (unmatchedCallback != null) {
+            unmatchedCallback.onFrame(frame);
+        } else if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+            LogUtils.d(LogUtils.CATEGORY_DATA, "[" + mDevice.device.getName() + "] 未匹配的帧 key: " + key + " 数据: " + ProtocolUtils.bytesToHexStr(frame));
+        }
+    }
+
+    /**
+     * 等待响应的请求
+     */
+    private static class Pending {
+        final ResultFuture<byte[]> future = new ResultFuture<>();
+        volatile HashedWheelTimer.Timeout timeoutTask;
+    }
+}
@@ -0,0 +1,364 @@
+package com.jochen.bluetoothmanager.ble;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 文件名：AdvertisingData
+ * 描述：广播数据解析
+ * 解析时只遍历一次广播数据，记录每个AD结构的类型、偏移和长度，不拷贝数据；
+ * 名称、UUID列表等字段在首次获取时才解码并缓存，Service数据、厂商数据返回原数组上的只读视图
+ * 同一设备重复收到相同的广播数据时，BLEDevice.getAdvertisingData()复用上一次的解析结果
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class AdvertisingData {
+    // AD类型
+    public static final int TYPE_FLAGS                 = 0x01;
+    public static final int TYPE_UUID16_INCOMPLETE     = 0x02;
+    public static final int TYPE_UUID16_COMPLETE       = 0x03;
+    public static final int TYPE_UUID32_INCOMPLETE     = 0x04;
+    public static final int TYPE_UUID32_COMPLETE       = 0x05;
+    public static final int TYPE_UUID128_INCOMPLETE    = 0x06;
+    public static final int TYPE_UUID128_COMPLETE      = 0x07;
+    public static final int TYPE_NAME_SHORT            = 0x08;
+    public static final int TYPE_NAME_COMPLETE         = 0x09;
+    public static final int TYPE_TX_POWER_LEVEL        = 0x0A;
+    public static final int TYPE_SERVICE_DATA_UUID16   = 0x16;
+    public static final int TYPE_SERVICE_DATA_UUID32   = 0x20;
+    public static final int TYPE_SERVICE_DATA_UUID128  = 0x21;
+    public static final int TYPE_MANUFACTURER_DATA     = 0xFF;
+
+    // 字段不存在时的返回值
+    public static final int FLAGS_UNKNOWN = -1;
+    public static final int TX_POWER_UNKNOWN = Integer.MIN_VALUE;
+
+    // 蓝牙基础UUID 0000xxxx-0000-1000-8000-00805F9B34FB
+    private static final long BASE_UUID_MSB = 0x0000000000001000L;
+    private static final long BASE_UUID_LSB = 0x800000805F9B34FBL;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] mData;
+    // AD结构索引，每项为 type << 24 | length << 16 | offset，offset为数据（不含长度、类型）起始位置
+    private final int[] mIndex;
+    private final int mCount;
+
+    // 延迟解码的字段
+    private String mLocalName;
+    private boolean mLocalNameDecoded;
+    private List<UUID> mServiceUuids;
+
+    private AdvertisingData(byte[] data, int[] index, int count) {
+        mData = data;
+        mIndex = index;
+        mCount = count;
+    }
+
+    /**
+     * 解析广播数据，遇到长度为0或越界的AD结构时停止（之后为填充数据）
+     *
+     * @param data 广播数据，解析后不能修改
+     * @return AdvertisingData，data为null时返回无AD结构的对象
+     */
+    public static AdvertisingData parse(byte[] data) {
+        if (data == null) {
+            return new AdvertisingData(new byte[0], new int[0], 0);
+        }
+        int[] index = new int[8];
+        int count = 0;
+        int position = 0;
+        while (position < data.length) {
+            int length = data[position] & 0xFF;
+            if (length == 0 || position + 1 + length > data.length) {
+                break;
+            }
+            if (count == index.length) {
+                index = Arrays.copyOf(index, count * 2);
+            }
+            index[count++] = (data[position + 1] & 0xFF) << 24 | (length - 1) << 16 | (position + 2);
+            position += 1 + length;
+        }
+        return new AdvertisingData(data, index, count);
+    }
+
+    /**
+     * 原始广播数据
+     */
+    public byte[] getBytes() {
+        return mData;
+    }
+
+    /**
+     * 广播数据是否与data相同
+     */
+    public boolean contentEquals(byte[] data) {
+        return mData == data || Arrays.equals(mData, data);
+    }
+
+    /**
+     * AD结构数量
+     */
+    public int getStructureCount() {
+        return mCount;
+    }
+
+    /**
+     * 第i个AD结构的类型
+     */
+    public int getType(int i) {
+        return mIndex[i] >>> 24;
+    }
+
+    /**
+     * 第i个AD结构数据在getBytes()中的起始位置
+     */
+    public int getDataOffset(int i) {
+        return mIndex[i] & 0xFFFF;
+    }
+
+    /**
+     * 第i个AD结构的数据长度（不含长度、类型字节）
+     */
+    public int getDataLength(int i) {
+        return (mIndex[i] >> 16) & 0xFF;
+    }
+
+    /**
+     * 第i个AD结构数据的只读视图
+     */
+    public ByteBuffer getData(int i) {
+        return view(getDataOffset(i), getDataLength(i));
+    }
+
+    /**
+     * 查找指定类型的AD结构
+     *
+     * @param type AD类型
+     * @param from 起始结构索引
+     * @return 结构索引，不存在返回-1
+     */
+    public int indexOf(int type, int from) {
+        for (int i = from; i < mCount; i++) {
+            if (getType(i) == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Flags
+     *
+     * @return 不存在返回FLAGS_UNKNOWN
+     */
+    public int getFlags() {
+        int i = indexOf(TYPE_FLAGS, 0);
+        return i < 0 || getDataLength(i) < 1 ? FLAGS_UNKNOWN : mData[getDataOffset(i)] & 0xFF;
+    }
+
+    /**
+     * 发射功率（dBm）
+     *
+     * @return 不存在返回TX_POWER_UNKNOWN
+     */
+    public int getTxPowerLevel() {
+        int i = indexOf(TYPE_TX_POWER_LEVEL, 0);
+        return i < 0 || getDataLength(i) < 1 ? TX_POWER_UNKNOWN : mData[getDataOffset(i)];
+    }
+
+    /**
+     * 广播名称，优先完整名称
+     *
+     * @return 不存在返回null
+     */
+    public String getLocalName() {
+        if (!mLocalNameDecoded) {
+            int i = indexOf(TYPE_NAME_COMPLETE, 0);
+            if (i < 0) {
+                i = indexOf(TYPE_NAME_SHORT, 0);
+            }
+            mLocalName = i < 0 ? null : new String(mData, getDataOffset(i), getDataLength(i), UTF_8);
+            mLocalNameDecoded = true;
+        }
+        return mLocalName;
+    }
+
+    /**
+     * 广播中的所有Service UUID（16、32、128位）
+     */
+    public List<UUID> getServiceUuids() {
+        if (mServiceUuids == null) {
+            List<UUID> uuids = new ArrayList<>();
+            for (int i = 0; i < mCount; i++) {
+                int size = uuidSize(getType(i));
+                if (size == 0) {
+                    continue;
+                }
+                int end = getDataOffset(i) + getDataLength(i);
+                for (int offset = getDataOffset(i); offset + size <= end; offset += size) {
+                    uuids.add(parseUuid(mData, offset, size));
+                }
+            }
+            mServiceUuids = Collections.unmodifiableList(uuids);
+        }
+        return mServiceUuids;
+    }
+
+    /**
+     * 是否包含Service UUID，直接比较广播数据，不创建UUID对象
+     *
+     * @param uuid Service UUID
+     */
+    public boolean hasServiceUuid(UUID uuid) {
+        for (int i = 0; i < mCount; i++) {
+            int size = uuidSize(getType(i));
+            if (size == 0) {
+                continue;
+            }
+            int end = getDataOffset(i) + getDataLength(i);
+            for (int offset = getDataOffset(i); offset + size <= end; offset += size) {
+                if (uuidEquals(mData, offset, size, uuid)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Service数据
+     *
+     * @param uuid Service UUID
+     * @return 不含UUID的只读视图，不存在返回null
+     */
+    public ByteBuffer getServiceData(UUID uuid) {
+        for (int i = 0; i < mCount; i++) {
+            int size;
+            switch (getType(i)) {
+                case TYPE_SERVICE_DATA_UUID16:
+                    size = 2;
+                    break;
+                case TYPE_SERVICE_DATA_UUID32:
+                    size = 4;
+                    break;
+                case TYPE_SERVICE_DATA_UUID128:
+                    size = 16;
+                    break;
+                default:
+                    continue;
+            }
+            int offset = getDataOffset(i);
+            int length = getDataLength(i);
+            if (length >= size && uuidEquals(mData, offset, size, uuid)) {
+                return view(offset + size, length - size);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 第一个厂商数据的厂商ID
+     *
+     * @return 不存在返回-1
+     */
+    public int getManufacturerId() {
+        int i = indexOfManufacturer(-1);
+        return i < 0 ? -1 : manufacturerId(i);
+    }
+
+    /**
+     * 厂商数据
+     *
+     * @param manufacturerId 厂商ID
+     * @return 不含厂商ID的只读视图，不存在返回null
+     */
+    public ByteBuffer getManufacturerData(int manufacturerId) {
+        int i = indexOfManufacturer(manufacturerId);
+        return i < 0 ? null : view(getDataOffset(i) + 2, getDataLength(i) - 2);
+    }
+
+    /**
+     * 查找厂商数据结构
+     *
+     * @param manufacturerId 厂商ID，-1为任意厂商
+     * @return 结构索引，不存在返回-1
+     */
+    public int indexOfManufacturer(int manufacturerId) {
+        for (int i = indexOf(TYPE_MANUFACTURER_DATA, 0); i >= 0; i = indexOf(TYPE_MANUFACTURER_DATA, i + 1)) {
+            if (getDataLength(i) >= 2 && (manufacturerId < 0 || manufacturerId(i) == manufacturerId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int manufacturerId(int i) {
+        int offset = getDataOffset(i);
+        return (mData[offset] & 0xFF) | ((mData[offset + 1] & 0xFF) << 8);
+    }
+
+    private ByteBuffer view(int offset, int length) {
+        return ByteBuffer.wrap(mData, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    private static int uuidSize(int type) {
+        switch (type) {
+            case TYPE_UUID16_INCOMPLETE:
+            case TYPE_UUID16_COMPLETE:
+                return 2;
+            case TYPE_UUID32_INCOMPLETE:
+            case TYPE_UUID32_COMPLETE:
+                return 4;
+            case TYPE_UUID128_INCOMPLETE:
+            case TYPE_UUID128_COMPLETE:
+                return 16;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean uuidEquals(byte[] data, int offset, int size, UUID uuid) {
+        if (size == 16) {
+            return readLong(data, offset + 8, 8) == uuid.getMostSignificantBits()
+                    && readLong(data, offset, 8) == uuid.getLeastSignificantBits();
+        }
+        return uuid.getLeastSignificantBits() == BASE_UUID_LSB
+                && uuid.getMostSignificantBits() == (BASE_UUID_MSB | (readLong(data, offset, size) << 32));
+    }
+
+    /**
+     * 解析广播中的小端UUID
+     *
+     * @param data   广播数据
+     * @param offset 起始索引
+     * @param size   2、4或16
+     */
+    public static UUID parseUuid(byte[] data, int offset, int size) {
+        if (size == 16) {
+            return new UUID(readLong(data, offset + 8, 8), readLong(data, offset, 8));
+        }
+        return new UUID(BASE_UUID_MSB | (readLong(data, offset, size) << 32), BASE_UUID_LSB);
+    }
+
+    /**
+     * 读取小端整数
+     */
+    private static long readLong(byte[] data, int offset, int size) {
+        long value = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "AdvertisingData{name=" + getLocalName() + ", flags=" + getFlags() + ", uuids=" + getServiceUuids()
+                + ", manufacturerId=" + getManufacturerId() + ", structures=" + mCount + "}";
+    }
+}
@@ -8,14 +8,25 @@ import android.bluetooth.BluetoothGattDescriptor;
 import android.bluetooth.BluetoothGattService;
 import android.bluetooth.BluetoothProfile;
 import android.os.Build;
+import android.util.Log;
 
 import com.jochen.bluetoothmanager.base.BaseDevice;
+import com.jochen.bluetoothmanager.function.ResultFuture;
 import com.jochen.bluetoothmanager.function.UUIDConfig;
+import com.jochen.bluetoothmanager.function.WritePriority;
 import com.jochen.bluetoothmanager.function.ConnectState;
 import com.jochen.bluetoothmanager.utils.LogUtils;
 import com.jochen.bluetoothmanager.utils.ProtocolUtils;
+import com.jochen.bluetoothmanager.utils.TrafficCapture;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * 文件名：BLEDevice
@@ -26,7 +37,13 @@ import java.util.List;
  * 创建时间：2019/8/2
  */
 public class BLEDevice extends BaseDevice {
+    // 默认MTU，ATT数据包最大负载为MTU - 3
+    public static final int DEFAULT_MTU = 23;
+    private static final int ATT_HEADER_SIZE = 3;
+
     public byte[] scanRecord;
+    // scanRecord的解析结果，广播数据不变时复用
+    private AdvertisingData mAdvertisingData;
 
     /**
      * 搜索到设备时会调用此构造方法
@@ -51,7 +68,7 @@ public class BLEDevice extends BaseDevice {
     @Override
     public boolean connect() {
         if (mUUIDConfig == null) {
-            LogUtils.e("连接设备前请先配置UUID(setUUIDConfig)");
+            LogUtils.e(LogUtils.CATEGORY_CONNECT, "连接设备前请先配置UUID(setUUIDConfig)");
             return false;
         }
         if (connectionState == ConnectState.STATE_DISCONNECTED) {
@@ -74,16 +91,122 @@ public class BLEDevice extends BaseDevice {
             mBluetoothGatt = null;
             setConnectState(ConnectState.STATE_DISCONNECTED);
             clearTxRxCharacteristic();
+            mOperationQueue.clear();
         }
     }
 
     @Override
-    public boolean write(byte[] data) {
+    public ResultFuture<Integer> writeAsync(ByteBuffer data, int priority) {
+        final ResultFuture<Integer> future = new ResultFuture<>();
+        final int length = data.remaining();
+        boolean result = write(data, priority, new GattOperation.Callback() {
+            @Override
+            public void onComplete(GattOperation operation, int status) {
+                if (operation.isSuccess()) {
+                    future.setResult(length);
+                } else {
+                    future.setFailure(GattOperation.statusToException(status));
+                }
+            }
+        });
+        if (!result) {
+            future.setFailure(new IOException("[" + device.getName() + "] not ready for write"));
+        }
+        return future;
+    }
+
+    /**
+     * 写入数据
+     * 超过MTU - 3的数据会自动分包连续发送
+     *
+     * @param data     待写入数据
+     * @param callback 所有分包发送完成后回调
+     * @return 是否加入GATT操作队列
+     */
+    public boolean write(byte[] data, GattOperation.Callback callback) {
+        return write(data, WritePriority.CONTROL, callback);
+    }
+
+    /**
+     * 写入数据
+     * 超过MTU - 3的数据会自动分包连续发送
+     *
+     * @param data     待写入数据
+     * @param priority WritePriority
+     * @param callback 所有分包发送完成后回调
+     * @return 是否加入GATT操作队列
+     */
+    public boolean write(byte[] data, int priority, GattOperation.Callback callback) {
+        return write(data, 0, data.length, priority, callback);
+    }
+
+    /**
+     * 写入数组中的一段数据
+     * 超过MTU - 3的数据会自动分包连续发送，数据在调用时拷贝，返回后即可复用data
+     *
+     * @param data     数组
+     * @param offset   起始索引
+     * @param length   长度
+     * @param priority WritePriority
+     * @param callback 所有分包发送完成后回调
+     * @return 是否加入GATT操作队列
+     */
+    public boolean write(byte[] data, int offset, int length, int priority, GattOperation.Callback callback) {
+        return write(ByteBuffer.wrap(Arrays.copyOfRange(data, offset, offset + length)), priority, callback);
+    }
+
+    /**
+     * 写入ByteBuffer中[position, limit)的数据
+     * 超过MTU - 3的数据会自动分包连续发送，不会改变data的position、limit，数据不做拷贝，回调前不能修改或复用其中的数据
+     *
+     * @param data     待写入数据
+     * @param priority WritePriority
+     * @param callback 所有分包发送完成后回调
+     * @return 是否加入GATT操作队列
+     */
+    public boolean write(ByteBuffer data, int priority, GattOperation.Callback callback) {
         if (mTxCharacteristic == null) {
-            LogUtils.w("[" + device.getName() + "] mTxCharacteristic not initialized");
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mTxCharacteristic not initialized");
             return false;
         }
-        return writeCharacteristic(mTxCharacteristic, data);
+        return writeCharacteristic(mTxCharacteristic, data, priority, callback);
+    }
+
+    /**
+     * 开启/关闭流模式
+     * 流模式使用WRITE_TYPE_NO_RESPONSE写入，每个分包在onCharacteristicWrite回调（协议栈缓冲区有空位）后才发送下一个，
+     * 适合大数据量传输，吞吐量由链路决定；设备不会确认数据，需要可靠性的命令请关闭流模式
+     * 断开连接时自动关闭，重新连接并发现服务后需要再次开启（重连后的写特征需要重新检查是否支持）
+     *
+     * @param enable true 开启; false 关闭
+     * @return 写特征不支持PROPERTY_WRITE_NO_RESPONSE时返回false
+     */
+    public boolean setStreamingMode(boolean enable) {
+        if (enable) {
+            if (mTxCharacteristic == null) {
+                LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mTxCharacteristic not initialized");
+                return false;
+            }
+            if ((mTxCharacteristic.getProperties() & BluetoothGattCharacteristic.PROPERTY_WRITE_NO_RESPONSE) == 0) {
+                LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mTxCharacteristic not support PROPERTY_WRITE_NO_RESPONSE");
+                return false;
+            }
+        }
+        mStreamingMode = enable;
+        return true;
+    }
+
+    public boolean isStreamingMode() {
+        return mStreamingMode;
+    }
+
+    /**
+     * 获取当前MTU
+     *
+     * @return 协商后的MTU，未协商时为DEFAULT_MTU
+     */
+    public int getMTU() {
+        return mMtu;
     }
 
     /**
@@ -93,30 +216,175 @@ public class BLEDevice extends BaseDevice {
      * @return 设置结果
      */
     public boolean setMTU(int mtu) {
+        return setMTU(mtu, null);
+    }
+
+    /**
+     * 设置MTU
+     *
+     * @param mtu      MTU大小
+     * @param callback 设置完成回调，可通过GattOperation.getMtu()获取协商后的MTU
+     * @return 是否加入GATT操作队列
+     */
+    public boolean setMTU(int mtu, GattOperation.Callback callback) {
         if (null == mBluetoothGatt) {
-            LogUtils.w("[" + device.getName() + "] mBluetoothGatt not initialized.");
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mBluetoothGatt not initialized.");
             return false;
         }
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            return mBluetoothGatt.requestMtu(mtu);
+            mOperationQueue.enqueue(GattOperation.requestMtu(mtu).setCallback(callback));
+            return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * 读取信号强度
+     *
+     * @param callback 读取完成回调，可通过GattOperation.getRssi()获取信号强度
+     * @return 是否加入GATT操作队列
+     */
+    public boolean readRssi(GattOperation.Callback callback) {
+        return enqueue(GattOperation.readRssi().setCallback(callback));
+    }
+
+    /**
+     * 读特征
+     *
+     * @param characteristic 待读特征
+     * @param callback       读取完成回调，可通过GattOperation.getValue()获取数据
+     * @return 是否加入GATT操作队列
+     */
+    public boolean readCharacteristic(BluetoothGattCharacteristic characteristic, GattOperation.Callback callback) {
+        return enqueue(GattOperation.readCharacteristic(characteristic).setCallback(callback));
+    }
+
+    /**
+     * 将自定义GATT操作加入操作队列
+     *
+     * @param operation GATT操作
+     * @return 是否加入GATT操作队列
+     */
+    public boolean enqueue(GattOperation operation) {
+        if (mBluetoothGatt == null) {
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mBluetoothGatt not initialized");
+            return false;
+        }
+        mOperationQueue.enqueue(operation);
+        return true;
+    }
+
+    /**
+     * 解析后的广播数据
+     * 与上一次解析的广播数据相同时直接返回上一次的结果
+     *
+     * @return AdvertisingData，未搜索到时为无AD结构的对象
+     */
+    public AdvertisingData getAdvertisingData() {
+        byte[] record = scanRecord;
+        AdvertisingData data = mAdvertisingData;
+        if (data == null || !data.contentEquals(record)) {
+            data = AdvertisingData.parse(record);
+            mAdvertisingData = data;
+        }
+        return data;
+    }
+
     @Override
     public String toString() {
         return "[" + device.getName() + "] mac: " + device.getAddress() + " scanRecord: " + ProtocolUtils.bytesToHexStr(scanRecord);
     }
 
+    /**
+     * 注册指定特征的Notify/Indicate回调
+     * 该特征的数据不再交给ReceiveDataCallback；已连接时立即开启Notify，之后每次连接后自动开启
+     *
+     * @param characteristicUUID 特征UUID
+     * @param callback           回调
+     */
+    public void registerNotifyCallback(UUID characteristicUUID, NotifyCallback callback) {
+        synchronized (mNotifyRegistrations) {
+            mNotifyRegistrations.put(characteristicUUID, callback);
+        }
+        BluetoothGatt gatt = mBluetoothGatt;
+        if (gatt != null && connectionState >= ConnectState.STATE_DATA_READY) {
+            resolveNotifyRoutes(gatt.getServices());
+        }
+    }
+
+    /**
+     * 注册当前连接中指定特征的Notify/Indicate回调，仅本次连接有效
+     *
+     * @param characteristic 特征
+     * @param callback       回调
+     * @return 是否开启Notify
+     */
+    public boolean registerNotifyCallback(BluetoothGattCharacteristic characteristic, NotifyCallback callback) {
+        if (!setCharacteristicNotification(characteristic, true)) {
+            return false;
+        }
+        putNotifyRoute(characteristic, callback);
+        return true;
+    }
+
+    /**
+     * 解绑指定特征的Notify/Indicate回调，已连接时关闭Notify
+     *
+     * @param characteristicUUID 特征UUID
+     */
+    public void unregisterNotifyCallback(UUID characteristicUUID) {
+        synchronized (mNotifyRegistrations) {
+            mNotifyRegistrations.remove(characteristicUUID);
+        }
+        for (BluetoothGattCharacteristic characteristic : mNotifyRoutes.keySet()) {
+            if (characteristic.getUuid().equals(characteristicUUID)) {
+                unregisterNotifyCallback(characteristic);
+            }
+        }
+    }
+
+    /**
+     * 解绑当前连接中指定特征的Notify/Indicate回调并关闭Notify
+     *
+     * @param characteristic 特征
+     */
+    public void unregisterNotifyCallback(BluetoothGattCharacteristic characteristic) {
+        synchronized (mNotifyRegistrations) {
+            if (!mNotifyRoutes.containsKey(characteristic)) {
+                return;
+            }
+            Map<BluetoothGattCharacteristic, NotifyCallback> routes = new IdentityHashMap<>(mNotifyRoutes);
+            routes.remove(characteristic);
+            mNotifyRoutes = routes;
+        }
+        if (characteristic != mRxCharacteristic) {
+            setCharacteristicNotification(characteristic, false);
+        }
+    }
+
     /***********************************************************************************************
      * BLE 连接实现
      **********************************************************************************************/
     // 写特征
-    private static BluetoothGattCharacteristic mTxCharacteristic = null;
+    private BluetoothGattCharacteristic mTxCharacteristic = null;
     // 读特征
-    private static BluetoothGattCharacteristic mRxCharacteristic = null;
+    private BluetoothGattCharacteristic mRxCharacteristic = null;
+    // 按UUID注册的Notify回调，重连后重新生效
+    private final Map<UUID, NotifyCallback> mNotifyRegistrations = new LinkedHashMap<>();
+    // Notify路由表，以当前连接的特征对象为键，按引用查找；只在修改时整体替换
+    private volatile Map<BluetoothGattCharacteristic, NotifyCallback> mNotifyRoutes = new IdentityHashMap<>();
     private BluetoothGatt mBluetoothGatt;
+    // 协商后的MTU
+    private volatile int mMtu = DEFAULT_MTU;
+    // 流模式（WRITE_TYPE_NO_RESPONSE）
+    private volatile boolean mStreamingMode = false;
+    // GATT操作队列
+    private final GattOperationQueue mOperationQueue = new GattOperationQueue(this);
+
+    BluetoothGatt getBluetoothGatt() {
+        return mBluetoothGatt;
+    }
 
     private final BluetoothGattCallback mGattCallback = new BluetoothGattCallback() {
         @Override
@@ -129,6 +397,7 @@ public class BLEDevice extends BaseDevice {
                 gatt.close();
                 mBluetoothGatt = null;
                 clearTxRxCharacteristic();
+                mOperationQueue.clear();
             }
         }
 
@@ -155,17 +424,14 @@ public class BLEDevice extends BaseDevice {
                     }
                 }
                 if (RxCharacteristicReady && TxCharacteristicReady) {
-                    LogUtils.i("[" + device.getName() + "] 读写通道建立完成.");
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
+                    LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] 读写通道建立完成.");
+                    resolveNotifyRoutes(bluetoothGattServices);
+                    // 开启Notification的Descriptor写操作已在GATT操作队列中，之后的写操作会排在其后执行
                     setConnectState(ConnectState.STATE_DATA_READY);
                     return;
                 }
             }
-            LogUtils.i("[" + device.getName() + "] 读写通道建立失败,断开连接.");
+            LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] 读写通道建立失败,断开连接.");
             disconnect();
         }
 
@@ -174,11 +440,13 @@ public class BLEDevice extends BaseDevice {
             if (status == BluetoothGatt.GATT_SUCCESS) {
                 receiveData(characteristic);
             }
+            mOperationQueue.complete(GattOperation.TYPE_READ_CHARACTERISTIC, status, characteristic.getValue(), 0);
         }
 
         @Override
         public void onCharacteristicWrite(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic, int status) {
             super.onCharacteristicWrite(gatt, characteristic, status);
+            mOperationQueue.complete(GattOperation.TYPE_WRITE_CHARACTERISTIC, status, null, 0);
         }
 
         @Override
@@ -197,12 +465,26 @@ public class BLEDevice extends BaseDevice {
         @Override
         public void onDescriptorWrite(BluetoothGatt gatt, BluetoothGattDescriptor descriptor, int status) {
             super.onDescriptorWrite(gatt, descriptor, status);
+            mOperationQueue.complete(GattOperation.TYPE_WRITE_DESCRIPTOR, status, null, 0);
+        }
+
+        @Override
+        public void onReadRemoteRssi(BluetoothGatt gatt, int rssi, int status) {
+            super.onReadRemoteRssi(gatt, rssi, status);
+            if (status == BluetoothGatt.GATT_SUCCESS) {
+                BLEDevice.this.rssi = rssi;
+            }
+            mOperationQueue.complete(GattOperation.TYPE_READ_RSSI, status, null, rssi);
         }
 
         @Override
         public void onMtuChanged(BluetoothGatt gatt, int mtu, int status) {
             super.onMtuChanged(gatt, mtu, status);
-            LogUtils.i("[" + device.getName() + "] onMtuChanged: " + mtu);
+            LogUtils.i(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] onMtuChanged: " + mtu);
+            if (status == BluetoothGatt.GATT_SUCCESS) {
+                mMtu = mtu;
+            }
+            mOperationQueue.complete(GattOperation.TYPE_REQUEST_MTU, status, null, mtu);
         }
     };
 
@@ -210,39 +492,79 @@ public class BLEDevice extends BaseDevice {
      * 发送数据
      *
      * @param characteristic 待写特征
-     * @param value          待发送数据
+     * @param value          待发送数据[position, limit)
+     * @param priority       WritePriority
+     * @param callback       写入完成回调
      */
-    private boolean writeCharacteristic(BluetoothGattCharacteristic characteristic, byte[] value) {
+    private boolean writeCharacteristic(BluetoothGattCharacteristic characteristic, ByteBuffer value, int priority, GattOperation.Callback callback) {
         if (mBluetoothGatt == null) {
-            LogUtils.w("[" + device.getName() + "] mBluetoothGatt not initialized");
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mBluetoothGatt not initialized");
             return false;
         }
-        characteristic.setValue(value);
-        LogUtils.d("[" + device.getName() + "] 发送 长度: " + value.length + " 数据: " + ProtocolUtils.bytesToHexStr(value));
-        return mBluetoothGatt.writeCharacteristic(characteristic);
+        if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+            LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 发送 长度: " + value.remaining() + " 数据: " + ProtocolUtils.bytesToHexStr(value));
+        }
+        if (getTrafficCapture() != null) {
+            // 所有分包都收到onCharacteristicWrite成功回调后再记录，未发出的数据不会出现在抓包中
+            final ByteBuffer sent = value.duplicate();
+            final GattOperation.Callback writeCallback = callback;
+            callback = new GattOperation.Callback() {
+                @Override
+                public void onComplete(GattOperation operation, int status) {
+                    if (status == BluetoothGatt.GATT_SUCCESS) {
+                        capture(TrafficCapture.DIRECTION_SENT, sent);
+                    }
+                    if (writeCallback != null) {
+                        writeCallback.onComplete(operation, status);
+                    }
+                }
+            };
+        }
+        GattOperation operation = GattOperation.writeCharacteristic(characteristic, value, mMtu - ATT_HEADER_SIZE)
+                .setWriteType(mStreamingMode ? BluetoothGattCharacteristic.WRITE_TYPE_NO_RESPONSE : BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT)
+                .setPriority(priority)
+                .setCallback(callback);
+        mOperationQueue.enqueue(operation);
+        return true;
     }
 
     /**
      * 写Descriptor
      *
      * @param descriptor 待写Descriptor
+     * @param value      待写数据
      */
-    private void writeDescriptor(BluetoothGattDescriptor descriptor) {
+    private void writeDescriptor(BluetoothGattDescriptor descriptor, byte[] value) {
         if (mBluetoothGatt == null) {
-            LogUtils.w("[" + device.getName() + "] mBluetoothGatt not initialized");
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mBluetoothGatt not initialized");
             return;
         }
-        mBluetoothGatt.writeDescriptor(descriptor);
+        mOperationQueue.enqueue(GattOperation.writeDescriptor(descriptor, value));
     }
 
     /**
      * 接收到设备Read或Notify
+     * 已注册NotifyCallback的特征交给对应回调，其他特征交给ReceiveDataCallback
      *
      * @param characteristic 接收数据的BluetoothGattCharacteristic
      */
     private void receiveData(final BluetoothGattCharacteristic characteristic) {
-        LogUtils.d("[" + device.getName() + "] 接收 长度: " + characteristic.getValue().length + " 数据: " + ProtocolUtils.bytesToHexStr(characteristic.getValue()));
-        receive(characteristic.getValue());
+        final byte[] value = characteristic.getValue();
+        if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+            LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收 长度: " + value.length + " 数据: " + ProtocolUtils.bytesToHexStr(value));
+        }
+        capture(TrafficCapture.DIRECTION_RECEIVED, value, 0, value.length);
+        final NotifyCallback callback = mNotifyRoutes.get(characteristic);
+        if (callback == null) {
+            receive(value);
+            return;
+        }
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                callback.onNotify(characteristic, value);
+            }
+        });
     }
 
     /**
@@ -251,7 +573,10 @@ public class BLEDevice extends BaseDevice {
      * @param descriptor 接收数据的BluetoothGattDescriptor
      */
     private void receiveData(final BluetoothGattDescriptor descriptor) {
-        LogUtils.d("[" + device.getName() + "] 接收 长度: " + descriptor.getValue().length + " 数据: " + ProtocolUtils.bytesToHexStr(descriptor.getValue()));
+        if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+            LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收 长度: " + descriptor.getValue().length + " 数据: " + ProtocolUtils.bytesToHexStr(descriptor.getValue()));
+        }
+        capture(TrafficCapture.DIRECTION_RECEIVED, descriptor.getValue(), 0, descriptor.getValue().length);
         receive(descriptor.getValue());
     }
 
@@ -291,6 +616,47 @@ public class BLEDevice extends BaseDevice {
     private void clearTxRxCharacteristic() {
         mTxCharacteristic = null;
         mRxCharacteristic = null;
+        // 特征对象只在本次连接有效，按UUID注册的回调在下次连接时重新解析
+        mNotifyRoutes = new IdentityHashMap<>();
+        mMtu = DEFAULT_MTU;
+        // 流模式依赖本次连接的写特征属性，见setStreamingMode
+        mStreamingMode = false;
+    }
+
+    /**
+     * 在已发现的服务中查找按UUID注册的特征，开启Notify并加入路由表
+     *
+     * @param services 已发现的服务
+     */
+    private void resolveNotifyRoutes(List<BluetoothGattService> services) {
+        Map<UUID, NotifyCallback> registrations;
+        synchronized (mNotifyRegistrations) {
+            if (mNotifyRegistrations.isEmpty()) {
+                return;
+            }
+            registrations = new LinkedHashMap<>(mNotifyRegistrations);
+        }
+        for (BluetoothGattService service : services) {
+            for (BluetoothGattCharacteristic characteristic : service.getCharacteristics()) {
+                NotifyCallback callback = registrations.get(characteristic.getUuid());
+                if (callback == null || mNotifyRoutes.get(characteristic) == callback) {
+                    continue;
+                }
+                if (characteristic == mRxCharacteristic || setCharacteristicNotification(characteristic, true)) {
+                    putNotifyRoute(characteristic, callback);
+                } else {
+                    LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] 开启Notify失败 " + characteristic.getUuid());
+                }
+            }
+        }
+    }
+
+    private void putNotifyRoute(BluetoothGattCharacteristic characteristic, NotifyCallback callback) {
+        synchronized (mNotifyRegistrations) {
+            Map<BluetoothGattCharacteristic, NotifyCallback> routes = new IdentityHashMap<>(mNotifyRoutes);
+            routes.put(characteristic, callback);
+            mNotifyRoutes = routes;
+        }
     }
 
     /**
@@ -301,7 +667,7 @@ public class BLEDevice extends BaseDevice {
      */
     private boolean setCharacteristicNotification(BluetoothGattCharacteristic characteristic, boolean enabled) {
         if (mBluetoothGatt == null) {
-            LogUtils.w("[" + device.getName() + "] mBluetoothGatt not initialized");
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + device.getName() + "] mBluetoothGatt not initialized");
             return false;
         }
 
@@ -316,20 +682,23 @@ public class BLEDevice extends BaseDevice {
 
             if (bluetoothGattDescriptor != null) {
                 int properties = characteristic.getProperties();
+                byte[] value = null;
                 if ((properties & BluetoothGattCharacteristic.PROPERTY_NOTIFY) > 0) {
                     if (enabled) {
-                        bluetoothGattDescriptor.setValue(BluetoothGattDescriptor.ENABLE_NOTIFICATION_VALUE);
+                        value = BluetoothGattDescriptor.ENABLE_NOTIFICATION_VALUE;
                     } else {
-                        bluetoothGattDescriptor.setValue(BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE);
+                        value = BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE;
                     }
                 } else if ((properties & BluetoothGattCharacteristic.PROPERTY_INDICATE) > 0) {
                     if (enabled) {
-                        bluetoothGattDescriptor.setValue(BluetoothGattDescriptor.ENABLE_INDICATION_VALUE);
+                        value = BluetoothGattDescriptor.ENABLE_INDICATION_VALUE;
                     } else {
-                        bluetoothGattDescriptor.setValue(BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE);
+                        value = BluetoothGattDescriptor.DISABLE_NOTIFICATION_VALUE;
                     }
                 }
-                writeDescriptor(bluetoothGattDescriptor);
+                if (value != null) {
+                    writeDescriptor(bluetoothGattDescriptor, value);
+                }
             }
             return true;
         } else {
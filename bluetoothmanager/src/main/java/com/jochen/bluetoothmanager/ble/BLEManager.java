@@ -1,5 +1,9 @@
 package com.jochen.bluetoothmanager.ble;
 
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.os.Build;
+
 import com.jochen.bluetoothmanager.base.BluetoothManager;
 import com.jochen.bluetoothmanager.function.BluetoothScanCallback;
 import com.jochen.bluetoothmanager.utils.BluetoothUtils;
@@ -11,14 +15,89 @@ import com.jochen.bluetoothmanager.utils.BluetoothUtils;
  * 创建时间：2019/8/1
  */
 public class BLEManager extends BluetoothManager {
+    // 搜索配置，null为不过滤
+    private volatile ScanConfig mScanConfig;
+    // Android 5.0及以上当前使用的BluetoothLeScanner搜索
+    private LeScanner mLeScanner;
+    // Android 5.0以下按ScanConfig软件过滤的搜索回调
+    private BluetoothAdapter.LeScanCallback mLegacyCallback;
+
+    /**
+     * 设置搜索配置，下次开始搜索时生效
+     *
+     * @param config ScanConfig，null为不过滤
+     */
+    public void setScanConfig(ScanConfig config) {
+        mScanConfig = config;
+    }
+
+    public ScanConfig getScanConfig() {
+        return mScanConfig;
+    }
+
     @Override
-    protected boolean startScanFunction(BluetoothScanCallback callback) {
-        return BluetoothUtils.getBluetoothAdapter().startLeScan(callback);
+    protected boolean startScanFunction(final BluetoothScanCallback callback) {
+        final ScanConfig config = mScanConfig;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            LeScanner scanner = new LeScanner(this, callback);
+            if (!scanner.start(config)) {
+                return false;
+            }
+            synchronized (this) {
+                mLeScanner = scanner;
+            }
+            return true;
+        }
+        BluetoothAdapter.LeScanCallback legacyCallback = callback;
+        if (config != null) {
+            legacyCallback = new BluetoothAdapter.LeScanCallback() {
+                @Override
+                public void onLeScan(BluetoothDevice device, int rssi, byte[] scanRecord) {
+                    if (config.matches(device, AdvertisingData.parse(scanRecord))) {
+                        callback.onLeScan(device, rssi, scanRecord);
+                    }
+                }
+            };
+        }
+        if (!BluetoothUtils.getBluetoothAdapter().startLeScan(legacyCallback)) {
+            return false;
+        }
+        synchronized (this) {
+            mLegacyCallback = legacyCallback;
+        }
+        return true;
     }
 
     @Override
     protected void stopScanFunction(BluetoothScanCallback callback) {
-        BluetoothUtils.getBluetoothAdapter().stopLeScan(callback);
+        LeScanner scanner;
+        BluetoothAdapter.LeScanCallback legacyCallback;
+        synchronized (this) {
+            scanner = mLeScanner;
+            legacyCallback = mLegacyCallback;
+            mLeScanner = null;
+            mLegacyCallback = null;
+        }
+        if (scanner != null) {
+            scanner.stop();
+        }
+        if (legacyCallback != null) {
+            BluetoothUtils.getBluetoothAdapter().stopLeScan(legacyCallback);
+        }
+    }
+
+    /**
+     * BluetoothLeScanner搜索失败，结束本次搜索
+     *
+     * @param scanner 失败的搜索
+     */
+    void onScanFailed(LeScanner scanner) {
+        synchronized (this) {
+            if (mLeScanner != scanner) {
+                return;
+            }
+        }
+        cancelScan();
     }
 
     /***********************************************************************************************
@@ -0,0 +1,346 @@
+package com.jochen.bluetoothmanager.ble;
+
+import android.bluetooth.BluetoothGatt;
+import android.bluetooth.BluetoothGattCharacteristic;
+import android.bluetooth.BluetoothGattDescriptor;
+import android.os.Build;
+
+import com.jochen.bluetoothmanager.function.WritePriority;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 文件名：GattOperation
+ * 描述：GATT操作
+ * BluetoothGatt同一时刻只能执行一个操作，上一个操作未回调前发起的操作会被系统丢弃，
+ * 所以BLEDevice的所有GATT操作都封装成GattOperation，由GattOperationQueue串行执行
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class GattOperation {
+    public static final int TYPE_WRITE_CHARACTERISTIC = 0; // 写特征
+    public static final int TYPE_READ_CHARACTERISTIC  = 1; // 读特征
+    public static final int TYPE_WRITE_DESCRIPTOR     = 2; // 写Descriptor
+    public static final int TYPE_REQUEST_MTU          = 3; // 设置MTU
+    public static final int TYPE_READ_RSSI            = 4; // 读取信号强度
+
+    // 非GATT协议的失败状态码
+    public static final int STATUS_FAILED   = -1; // BluetoothGatt接口调用失败
+    public static final int STATUS_TIMEOUT  = -2; // 等待系统回调超时
+    public static final int STATUS_CANCELED = -3; // 连接断开，操作被取消
+
+    // 默认超时时间（毫秒）
+    public static final int DEFAULT_TIMEOUT = 3000;
+
+    /**
+     * 操作完成回调
+     * 在GATT回调线程或定时器线程中执行，请勿执行耗时操作
+     */
+    public interface Callback {
+        /**
+         * 操作完成
+         *
+         * @param operation 完成的操作
+         * @param status    BluetoothGatt.GATT_SUCCESS为成功，其他为失败
+         */
+        void onComplete(GattOperation operation, int status);
+    }
+
+    final int type;
+    final BluetoothGattCharacteristic characteristic;
+    final BluetoothGattDescriptor descriptor;
+    final byte[] value;
+    final int mtu;
+    // 写特征的数据，[position, limit)为未发送的数据
+    private final ByteBuffer data;
+    // 分包大小
+    private final int fragmentSize;
+    // 当前分包长度
+    private int fragmentLength;
+    // 分包缓存，同一次写入的分包复用
+    private byte[] fragment;
+    // 写特征类型
+    private int writeType = BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT;
+    // 发送优先级
+    int priority = WritePriority.CONTROL;
+    // 系统繁忙时已重试次数
+    int busyRetry;
+    int timeout = DEFAULT_TIMEOUT;
+    Callback callback;
+
+    // 操作结果
+    private int status = STATUS_FAILED;
+    private byte[] resultValue;
+    private int resultInt;
+
+    private GattOperation(int type, BluetoothGattCharacteristic characteristic, BluetoothGattDescriptor descriptor, byte[] value, int mtu) {
+        this(type, characteristic, descriptor, value, mtu, null, 0);
+    }
+
+    private GattOperation(int type, BluetoothGattCharacteristic characteristic, BluetoothGattDescriptor descriptor, byte[] value, int mtu,
+                          ByteBuffer data, int fragmentSize) {
+        this.type = type;
+        this.characteristic = characteristic;
+        this.descriptor = descriptor;
+        this.value = value;
+        this.mtu = mtu;
+        this.data = data;
+        this.fragmentSize = Math.max(1, fragmentSize);
+    }
+
+    /**
+     * 写特征
+     * 数据在调用时拷贝，返回后即可复用value
+     *
+     * @param characteristic 待写特征
+     * @param value          待写数据
+     */
+    public static GattOperation writeCharacteristic(BluetoothGattCharacteristic characteristic, byte[] value) {
+        return writeCharacteristic(characteristic, value, 0, value.length, value.length);
+    }
+
+    /**
+     * 分包写特征
+     * 数据按fragmentSize拆分后连续发送，所有分包发送完成后才回调一次结果
+     * 不会改变data的position、limit，数据不做拷贝，回调前不能修改或复用其中的数据
+     *
+     * @param characteristic 待写特征
+     * @param data           待写数据[position, limit)
+     * @param fragmentSize   分包大小，通常为MTU - 3
+     */
+    public static GattOperation writeCharacteristic(BluetoothGattCharacteristic characteristic, ByteBuffer data, int fragmentSize) {
+        return new GattOperation(TYPE_WRITE_CHARACTERISTIC, characteristic, null, null, 0, data.slice(), fragmentSize);
+    }
+
+    /**
+     * 分包写特征
+     * 数据按fragmentSize拆分后连续发送，所有分包发送完成后才回调一次结果
+     * 数据在调用时拷贝，返回后即可复用value
+     *
+     * @param characteristic 待写特征
+     * @param value          待写数据
+     * @param offset         起始索引
+     * @param length         长度
+     * @param fragmentSize   分包大小，通常为MTU - 3
+     */
+    public static GattOperation writeCharacteristic(BluetoothGattCharacteristic characteristic, byte[] value, int offset, int length, int fragmentSize) {
+        return writeCharacteristic(characteristic, ByteBuffer.wrap(Arrays.copyOfRange(value, offset, offset + length)), fragmentSize);
+    }
+
+    /**
+     * 读特征
+     *
+     * @param characteristic 待读特征
+     */
+    public static GattOperation readCharacteristic(BluetoothGattCharacteristic characteristic) {
+        return new GattOperation(TYPE_READ_CHARACTERISTIC, characteristic, null, null, 0);
+    }
+
+    /**
+     * 写Descriptor
+     *
+     * @param descriptor 待写Descriptor
+     * @param value      待写数据
+     */
+    public static GattOperation writeDescriptor(BluetoothGattDescriptor descriptor, byte[] value) {
+        return new GattOperation(TYPE_WRITE_DESCRIPTOR, null, descriptor, value, 0);
+    }
+
+    /**
+     * 设置MTU，仅Android 5.0及以上支持
+     *
+     * @param mtu MTU大小
+     */
+    public static GattOperation requestMtu(int mtu) {
+        return new GattOperation(TYPE_REQUEST_MTU, null, null, null, mtu);
+    }
+
+    /**
+     * 读取信号强度
+     */
+    public static GattOperation readRssi() {
+        return new GattOperation(TYPE_READ_RSSI, null, null, null, 0);
+    }
+
+    /**
+     * 设置超时时间
+     *
+     * @param timeout 毫秒，小于等于0则不超时
+     * @return this
+     */
+    public GattOperation setTimeout(int timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * 设置写特征类型
+     * WRITE_TYPE_NO_RESPONSE时每个分包的onCharacteristicWrite表示数据已进入协议栈发送缓冲区，
+     * 收到回调后才发送下一个分包，发送速度由链路决定且不会溢出控制器缓冲区
+     *
+     * @param writeType BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT 或 WRITE_TYPE_NO_RESPONSE
+     * @return this
+     */
+    public GattOperation setWriteType(int writeType) {
+        this.writeType = writeType;
+        return this;
+    }
+
+    /**
+     * 是否为无响应写
+     */
+    boolean isWriteNoResponse() {
+        return type == TYPE_WRITE_CHARACTERISTIC && writeType == BluetoothGattCharacteristic.WRITE_TYPE_NO_RESPONSE;
+    }
+
+    /**
+     * 设置优先级
+     * WritePriority.CONTROL的操作优先于已排队的WritePriority.BULK操作执行，默认为CONTROL
+     *
+     * @param priority WritePriority
+     * @return this
+     */
+    public GattOperation setPriority(int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * 设置完成回调
+     *
+     * @param callback 完成回调
+     * @return this
+     */
+    public GattOperation setCallback(Callback callback) {
+        this.callback = callback;
+        return this;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == BluetoothGatt.GATT_SUCCESS;
+    }
+
+    /**
+     * 读特征的结果
+     */
+    public byte[] getValue() {
+        return resultValue;
+    }
+
+    /**
+     * 设置MTU的结果
+     */
+    public int getMtu() {
+        return resultInt;
+    }
+
+    /**
+     * 读取信号强度的结果
+     */
+    public int getRssi() {
+        return resultInt;
+    }
+
+    /**
+     * 将失败状态码转换为异常
+     *
+     * @param status 状态码
+     * @return Exception
+     */
+    static Exception statusToException(int status) {
+        switch (status) {
+            case STATUS_TIMEOUT:
+                return new TimeoutException("GATT operation timeout");
+            case STATUS_CANCELED:
+                return new IOException("GATT operation canceled, disconnected");
+            case STATUS_FAILED:
+                return new IOException("GATT operation failed");
+            default:
+                return new IOException("GATT status: " + status);
+        }
+    }
+
+    /**
+     * 调用BluetoothGatt接口发起操作
+     *
+     * @param gatt BluetoothGatt
+     * @return 系统是否接受该操作
+     */
+    boolean execute(BluetoothGatt gatt) {
+        switch (type) {
+            case TYPE_WRITE_CHARACTERISTIC:
+                characteristic.setWriteType(writeType);
+                characteristic.setValue(nextFragment());
+                return gatt.writeCharacteristic(characteristic);
+            case TYPE_READ_CHARACTERISTIC:
+                return gatt.readCharacteristic(characteristic);
+            case TYPE_WRITE_DESCRIPTOR:
+                descriptor.setValue(value);
+                return gatt.writeDescriptor(descriptor);
+            case TYPE_REQUEST_MTU:
+                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && gatt.requestMtu(mtu);
+            case TYPE_READ_RSSI:
+                return gatt.readRemoteRssi();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 取出当前待发送的分包
+     * 系统接口只接受完整的byte[]，除数据正好是完整数组的情况外，分包数据拷贝到复用的分包缓存中，
+     * BluetoothGatt.writeCharacteristic返回时数据已经交给系统，缓存可以复用
+     */
+    private byte[] nextFragment() {
+        int remaining = data.remaining();
+        fragmentLength = Math.min(fragmentSize, remaining);
+        if (fragmentLength == remaining && data.hasArray() && data.arrayOffset() + data.position() == 0
+                && data.array().length == remaining) {
+            return data.array();
+        }
+        if (fragment == null || fragment.length != fragmentLength) {
+            fragment = new byte[fragmentLength];
+        }
+        int position = data.position();
+        data.get(fragment, 0, fragmentLength);
+        data.position(position);
+        return fragment;
+    }
+
+    /**
+     * 当前分包发送完成，移动到下一个分包
+     *
+     * @return true 还有分包待发送; false 全部发送完成
+     */
+    boolean moveToNextFragment() {
+        if (type != TYPE_WRITE_CHARACTERISTIC) {
+            return false;
+        }
+        data.position(data.position() + fragmentLength);
+        fragmentLength = 0;
+        return data.hasRemaining();
+    }
+
+    /**
+     * 操作结束，回调结果
+     */
+    void finish(int status, byte[] resultValue, int resultInt) {
+        this.status = status;
+        this.resultValue = resultValue;
+        this.resultInt = resultInt;
+        if (callback != null) {
+            callback.onComplete(this, status);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.jochen.bluetoothmanager.ble;
+
+import android.bluetooth.BluetoothGatt;
+
+import com.jochen.bluetoothmanager.utils.HashedWheelTimer;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+import com.jochen.bluetoothmanager.utils.TimerUtils;
+
+import com.jochen.bluetoothmanager.function.WritePriority;
+
+import java.util.LinkedList;
+
+/**
+ * 文件名：GattOperationQueue
+ * 描述：GATT操作队列
+ * 每个BLEDevice一个队列，同一时刻只有一个操作在执行，
+ * 收到对应的BluetoothGattCallback回调或超时后才执行下一个操作
+ * 队列分为控制、批量两个通道，控制通道中的操作优先执行；正在分包发送的操作不会被打断
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+class GattOperationQueue {
+    // 无响应写时协议栈缓冲区已满，重试间隔（毫秒）及最大重试次数
+    private static final int BUSY_RETRY_DELAY = 5;
+    private static final int BUSY_RETRY_MAX = 200;
+
+    private final BLEDevice mDevice;
+    // 等待执行的控制操作
+    private final LinkedList<GattOperation> mControlQueue = new LinkedList<>();
+    // 等待执行的批量操作
+    private final LinkedList<GattOperation> mBulkQueue = new LinkedList<>();
+    // 正在执行的操作
+    private GattOperation mCurrent;
+    // 正在执行操作的超时或重试task
+    private HashedWheelTimer.Timeout mTimeoutTask;
+
+    GattOperationQueue(BLEDevice device) {
+        mDevice = device;
+    }
+
+    /**
+     * 操作入队，若当前无操作执行则立即执行
+     *
+     * @param operation GATT操作
+     */
+    void enqueue(GattOperation operation) {
+        synchronized (this) {
+            if (operation.priority == WritePriority.BULK) {
+                mBulkQueue.add(operation);
+            } else {
+                mControlQueue.add(operation);
+            }
+        }
+        next();
+    }
+
+    /**
+     * 系统回调操作结果
+     *
+     * @param type        操作类型
+     * @param status      GATT状态
+     * @param resultValue 读取到的数据
+     * @param resultInt   MTU或RSSI
+     */
+    void complete(int type, int status, byte[] resultValue, int resultInt) {
+        GattOperation operation;
+        synchronized (this) {
+            operation = mCurrent;
+            if (operation == null || operation.type != type) {
+                // 非队列发起的操作回调
+                return;
+            }
+            cancelTimeout();
+            if (status == BluetoothGatt.GATT_SUCCESS && operation.moveToNextFragment()) {
+                // 分包写入，继续发送下一个分包
+                if (executeLocked(operation)) {
+                    return;
+                }
+                status = GattOperation.STATUS_FAILED;
+            }
+            mCurrent = null;
+        }
+        finish(operation, status, resultValue, resultInt);
+        next();
+    }
+
+    /**
+     * 连接断开，取消所有操作
+     */
+    void clear() {
+        LinkedList<GattOperation> canceled;
+        synchronized (this) {
+            cancelTimeout();
+            canceled = new LinkedList<>(mControlQueue);
+            canceled.addAll(mBulkQueue);
+            if (mCurrent != null) {
+                canceled.addFirst(mCurrent);
+                mCurrent = null;
+            }
+            mControlQueue.clear();
+            mBulkQueue.clear();
+        }
+        for (GattOperation operation : canceled) {
+            finish(operation, GattOperation.STATUS_CANCELED, null, 0);
+        }
+    }
+
+    /**
+     * 执行下一个操作
+     */
+    private void next() {
+        while (true) {
+            GattOperation operation;
+            synchronized (this) {
+                if (mCurrent != null) {
+                    return;
+                }
+                operation = mControlQueue.poll();
+                if (operation == null) {
+                    operation = mBulkQueue.poll();
+                }
+                if (operation == null) {
+                    return;
+                }
+                // 先置为当前操作再调用系统接口，系统回调会在锁释放后处理
+                mCurrent = operation;
+                if (executeLocked(operation)) {
+                    return;
+                }
+                mCurrent = null;
+            }
+            LogUtils.w(LogUtils.CATEGORY_GATT, "[" + mDevice.device.getName() + "] GATT操作执行失败 type: " + operation.type);
+            finish(operation, GattOperation.STATUS_FAILED, null, 0);
+        }
+    }
+
+    /**
+     * 执行操作，需持有锁
+     * 无响应写在协议栈缓冲区已满时系统接口会返回false，此时等待缓冲区释放后重试，而不是丢弃数据
+     *
+     * @param operation 当前操作
+     * @return true 已执行或等待重试; false 执行失败
+     */
+    private boolean executeLocked(final GattOperation operation) {
+        BluetoothGatt gatt = mDevice.getBluetoothGatt();
+        if (gatt == null) {
+            return false;
+        }
+        if (operation.execute(gatt)) {
+            operation.busyRetry = 0;
+            scheduleTimeout(operation);
+            return true;
+        }
+        if (operation.isWriteNoResponse() && operation.busyRetry < BUSY_RETRY_MAX) {
+            operation.busyRetry++;
+            mTimeoutTask = TimerUtils.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (GattOperationQueue.this) {
+                        if (mCurrent != operation) {
+                            return;
+                        }
+                        mTimeoutTask = null;
+                        if (executeLocked(operation)) {
+                            return;
+                        }
+                        mCurrent = null;
+                    }
+                    finish(operation, GattOperation.STATUS_FAILED, null, 0);
+                    next();
+                }
+            }, BUSY_RETRY_DELAY);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 回调操作结果，回调异常不能中断队列，否则后续操作永远不会执行
+     */
+    private void finish(GattOperation operation, int status, byte[] resultValue, int resultInt) {
+        try {
+            operation.finish(status, resultValue, resultInt);
+        } catch (Exception e) {
+            LogUtils.e(LogUtils.CATEGORY_GATT, "GATT操作回调异常", e);
+        }
+    }
+
+    private void scheduleTimeout(final GattOperation operation) {
+        if (operation.timeout <= 0) {
+            return;
+        }
+        mTimeoutTask = TimerUtils.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (GattOperationQueue.this) {
+                    if (mCurrent != operation) {
+                        return;
+                    }
+                    mTimeoutTask = null;
+                    mCurrent = null;
+                }
+                LogUtils.w(LogUtils.CATEGORY_GATT, "[" + mDevice.device.getName() + "] GATT操作超时 type: " + operation.type);
+                finish(operation, GattOperation.STATUS_TIMEOUT, null, 0);
+                next();
+            }
+        }, operation.timeout);
+    }
+
+    private void cancelTimeout() {
+        if (mTimeoutTask != null) {
+            mTimeoutTask.cancel();
+            mTimeoutTask = null;
+        }
+    }
+}
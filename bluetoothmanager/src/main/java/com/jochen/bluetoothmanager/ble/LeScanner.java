@@ -0,0 +1,137 @@
+package com.jochen.bluetoothmanager.ble;
+
+import android.annotation.TargetApi;
+import android.bluetooth.le.BluetoothLeScanner;
+import android.bluetooth.le.ScanCallback;
+import android.bluetooth.le.ScanFilter;
+import android.bluetooth.le.ScanRecord;
+import android.bluetooth.le.ScanResult;
+import android.bluetooth.le.ScanSettings;
+import android.os.Build;
+import android.os.ParcelUuid;
+
+import com.jochen.bluetoothmanager.function.BluetoothScanCallback;
+import com.jochen.bluetoothmanager.utils.BluetoothUtils;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件名：LeScanner
+ * 描述：BluetoothLeScanner搜索，Android 5.0及以上使用
+ * 将ScanConfig转换为ScanFilter、ScanSettings，搜索结果转交BluetoothScanCallback.onLeScan
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+class LeScanner extends ScanCallback {
+    private final BLEManager mManager;
+    private final BluetoothScanCallback mCallback;
+    private BluetoothLeScanner mScanner;
+
+    LeScanner(BLEManager manager, BluetoothScanCallback callback) {
+        mManager = manager;
+        mCallback = callback;
+    }
+
+    /**
+     * 开始搜索
+     *
+     * @param config 搜索配置，null为不过滤
+     * @return 蓝牙未开启时返回false
+     */
+    boolean start(ScanConfig config) {
+        mScanner = BluetoothUtils.getBluetoothAdapter().getBluetoothLeScanner();
+        if (mScanner == null) {
+            return false;
+        }
+        if (config == null) {
+            config = new ScanConfig();
+        }
+        try {
+            mScanner.startScan(buildFilters(config), buildSettings(config), this);
+            return true;
+        } catch (Exception e) {
+            LogUtils.e(LogUtils.CATEGORY_SCAN, "BluetoothLeScanner搜索开启失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 停止搜索
+     */
+    void stop() {
+        if (mScanner == null) {
+            return;
+        }
+        try {
+            mScanner.stopScan(this);
+        } catch (Exception e) {
+            // 蓝牙已关闭
+            LogUtils.e(LogUtils.CATEGORY_SCAN, "BluetoothLeScanner搜索关闭失败", e);
+        }
+        mScanner = null;
+    }
+
+    @Override
+    public void onScanResult(int callbackType, ScanResult result) {
+        deliver(result);
+    }
+
+    @Override
+    public void onBatchScanResults(List<ScanResult> results) {
+        for (ScanResult result : results) {
+            deliver(result);
+        }
+    }
+
+    @Override
+    public void onScanFailed(int errorCode) {
+        LogUtils.w(LogUtils.CATEGORY_SCAN, "BluetoothLeScanner搜索失败 errorCode: " + errorCode);
+        mCallback.onScanFailed(errorCode);
+        mManager.onScanFailed(this);
+    }
+
+    private void deliver(ScanResult result) {
+        ScanRecord record = result.getScanRecord();
+        mCallback.onLeScan(result.getDevice(), result.getRssi(), record == null ? null : record.getBytes());
+    }
+
+    private static List<ScanFilter> buildFilters(ScanConfig config) {
+        List<ScanFilter> filters = new ArrayList<>();
+        for (ScanConfig.Filter filter : config.getFilters()) {
+            ScanFilter.Builder builder = new ScanFilter.Builder();
+            if (filter.getServiceUuid() != null) {
+                builder.setServiceUuid(new ParcelUuid(filter.getServiceUuid()));
+            }
+            if (filter.getManufacturerId() >= 0) {
+                byte[] data = filter.getManufacturerData() == null ? new byte[0] : filter.getManufacturerData();
+                if (filter.getManufacturerDataMask() == null) {
+                    builder.setManufacturerData(filter.getManufacturerId(), data);
+                } else {
+                    builder.setManufacturerData(filter.getManufacturerId(), data, filter.getManufacturerDataMask());
+                }
+            }
+            if (filter.getDeviceAddress() != null) {
+                builder.setDeviceAddress(filter.getDeviceAddress());
+            }
+            if (filter.getDeviceName() != null) {
+                builder.setDeviceName(filter.getDeviceName());
+            }
+            filters.add(builder.build());
+        }
+        return filters;
+    }
+
+    private static ScanSettings buildSettings(ScanConfig config) {
+        int scanMode = config.getScanMode();
+        if (scanMode == ScanConfig.SCAN_MODE_OPPORTUNISTIC && Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            scanMode = ScanConfig.SCAN_MODE_LOW_POWER;
+        }
+        return new ScanSettings.Builder()
+                .setScanMode(scanMode)
+                .setReportDelay(BluetoothUtils.getBluetoothAdapter().isOffloadedScanBatchingSupported() ? config.getReportDelay() : 0)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.jochen.bluetoothmanager.ble;
+
+import android.bluetooth.BluetoothGattCharacteristic;
+
+/**
+ * 文件名：NotifyCallback
+ * 描述：指定特征的Notify/Indicate数据回调
+ * 与ReceiveDataCallback一样在设备的分发线程中执行
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface NotifyCallback {
+    /**
+     * 接收数据
+     *
+     * @param characteristic 数据来源特征
+     * @param value          数据
+     */
+    void onNotify(BluetoothGattCharacteristic characteristic, byte[] value);
+}
@@ -0,0 +1,228 @@
+package com.jochen.bluetoothmanager.ble;
+
+import android.bluetooth.BluetoothDevice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 文件名：ScanConfig
+ * 描述：BLE搜索配置
+ * Android 5.0及以上转换为ScanFilter、ScanSettings交给BluetoothLeScanner，支持的设备在蓝牙芯片中完成过滤，
+ * 不匹配的广播不会唤醒应用；5.0以下使用startLeScan，在回调中按相同规则软件过滤
+ * 多个过滤条件之间为或关系，没有过滤条件时上报所有设备
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class ScanConfig {
+    // 搜索模式，与ScanSettings取值一致，5.0以下忽略
+    public static final int SCAN_MODE_OPPORTUNISTIC = -1; // 仅接收其他应用的搜索结果，Android 6.0及以上
+    public static final int SCAN_MODE_LOW_POWER    = 0;  // 低功耗
+    public static final int SCAN_MODE_BALANCED     = 1;  // 均衡
+    public static final int SCAN_MODE_LOW_LATENCY  = 2;  // 低延迟，与startLeScan一致
+
+    /**
+     * 单个过滤条件，已设置的字段需要全部匹配
+     */
+    public static class Filter {
+        UUID serviceUuid;
+        int manufacturerId = -1;
+        byte[] manufacturerData;
+        byte[] manufacturerDataMask;
+        String deviceAddress;
+        String deviceName;
+
+        public UUID getServiceUuid() {
+            return serviceUuid;
+        }
+
+        public int getManufacturerId() {
+            return manufacturerId;
+        }
+
+        public byte[] getManufacturerData() {
+            return manufacturerData;
+        }
+
+        public byte[] getManufacturerDataMask() {
+            return manufacturerDataMask;
+        }
+
+        public String getDeviceAddress() {
+            return deviceAddress;
+        }
+
+        public String getDeviceName() {
+            return deviceName;
+        }
+
+        /**
+         * 软件匹配，5.0以下使用
+         *
+         * @param device 设备
+         * @param data   广播数据
+         */
+        boolean matches(BluetoothDevice device, AdvertisingData data) {
+            if (deviceAddress != null && !deviceAddress.equalsIgnoreCase(device.getAddress())) {
+                return false;
+            }
+            if (serviceUuid != null && !data.hasServiceUuid(serviceUuid)) {
+                return false;
+            }
+            if (deviceName != null && !deviceName.equals(data.getLocalName())) {
+                return false;
+            }
+            return manufacturerId < 0 || matchManufacturer(data);
+        }
+
+        private boolean matchManufacturer(AdvertisingData data) {
+            int i = data.indexOfManufacturer(manufacturerId);
+            if (i < 0) {
+                return false;
+            }
+            if (manufacturerData == null) {
+                return true;
+            }
+            if (data.getDataLength(i) - 2 < manufacturerData.length) {
+                return false;
+            }
+            byte[] record = data.getBytes();
+            int start = data.getDataOffset(i) + 2;
+            for (int j = 0; j < manufacturerData.length; j++) {
+                int mask = manufacturerDataMask == null ? 0xFF : manufacturerDataMask[j];
+                if (((record[start + j] ^ manufacturerData[j]) & mask) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private int mScanMode = SCAN_MODE_LOW_LATENCY;
+    private long mReportDelay;
+    private final List<Filter> mFilters = new ArrayList<>();
+
+    /**
+     * 设置搜索模式
+     *
+     * @param scanMode SCAN_MODE_LOW_POWER、SCAN_MODE_BALANCED、SCAN_MODE_LOW_LATENCY、SCAN_MODE_OPPORTUNISTIC
+     * @return this
+     */
+    public ScanConfig setScanMode(int scanMode) {
+        mScanMode = scanMode;
+        return this;
+    }
+
+    /**
+     * 设置批量上报延时
+     * 大于0时搜索结果缓存在蓝牙芯片中，每reportDelay毫秒批量上报一次，芯片不支持时系统忽略该设置
+     *
+     * @param reportDelay 毫秒，0为立即上报
+     * @return this
+     */
+    public ScanConfig setReportDelay(long reportDelay) {
+        mReportDelay = Math.max(0, reportDelay);
+        return this;
+    }
+
+    /**
+     * 按广播中的Service UUID过滤
+     *
+     * @param serviceUuid Service UUID
+     * @return this
+     */
+    public ScanConfig addServiceUuid(UUID serviceUuid) {
+        Filter filter = new Filter();
+        filter.serviceUuid = serviceUuid;
+        mFilters.add(filter);
+        return this;
+    }
+
+    /**
+     * 按厂商ID过滤
+     *
+     * @param manufacturerId 蓝牙联盟分配的厂商ID
+     * @return this
+     */
+    public ScanConfig addManufacturerId(int manufacturerId) {
+        return addManufacturerData(manufacturerId, null, null);
+    }
+
+    /**
+     * 按厂商数据过滤
+     *
+     * @param manufacturerId 蓝牙联盟分配的厂商ID
+     * @param data           厂商数据前缀（不含厂商ID），null只匹配厂商ID
+     * @param mask           数据掩码，与data等长，null为全部匹配
+     * @return this
+     */
+    public ScanConfig addManufacturerData(int manufacturerId, byte[] data, byte[] mask) {
+        if (data != null && mask != null && mask.length != data.length) {
+            throw new IllegalArgumentException("mask length must equal data length");
+        }
+        Filter filter = new Filter();
+        filter.manufacturerId = manufacturerId;
+        filter.manufacturerData = data;
+        filter.manufacturerDataMask = mask;
+        mFilters.add(filter);
+        return this;
+    }
+
+    /**
+     * 按设备地址过滤
+     *
+     * @param address 设备地址，如 00:11:22:AA:BB:CC
+     * @return this
+     */
+    public ScanConfig addDeviceAddress(String address) {
+        Filter filter = new Filter();
+        filter.deviceAddress = address.toUpperCase();
+        mFilters.add(filter);
+        return this;
+    }
+
+    /**
+     * 按广播名称过滤
+     *
+     * @param name 设备名称，完整匹配
+     * @return this
+     */
+    public ScanConfig addDeviceName(String name) {
+        Filter filter = new Filter();
+        filter.deviceName = name;
+        mFilters.add(filter);
+        return this;
+    }
+
+    public int getScanMode() {
+        return mScanMode;
+    }
+
+    public long getReportDelay() {
+        return mReportDelay;
+    }
+
+    public List<Filter> getFilters() {
+        return Collections.unmodifiableList(mFilters);
+    }
+
+    /**
+     * 软件过滤，满足任一过滤条件即匹配
+     *
+     * @param device 设备
+     * @param data   广播数据
+     */
+    public boolean matches(BluetoothDevice device, AdvertisingData data) {
+        if (mFilters.isEmpty()) {
+            return true;
+        }
+        for (Filter filter : mFilters) {
+            if (filter.matches(device, data)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
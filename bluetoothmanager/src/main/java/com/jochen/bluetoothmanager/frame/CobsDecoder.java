@@ -0,0 +1,72 @@
+package com.jochen.bluetoothmanager.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：CobsDecoder
+ * 描述：COBS（Consistent Overhead Byte Stuffing）帧解码器
+ * 帧以0x00结尾，帧内不含0x00；收到完整帧后在缓存中原地解码，空帧不回调
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class CobsDecoder implements FrameDecoder {
+    // 已扫描且确认不包含0x00的长度，相对in.position()
+    private int mScanned;
+
+    @Override
+    public boolean decode(ByteBuffer in, ByteBuffer frame) {
+        while (true) {
+            int position = in.position();
+            int limit = in.limit();
+            int end = -1;
+            for (int i = position + mScanned; i < limit; i++) {
+                if (in.get(i) == 0) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                mScanned = limit - position;
+                return false;
+            }
+            mScanned = 0;
+            in.position(end + 1);
+            if (end == position) {
+                // 空帧
+                continue;
+            }
+            frame.limit(decodeInPlace(in, position, end));
+            frame.position(position);
+            return true;
+        }
+    }
+
+    @Override
+    public void reset() {
+        mScanned = 0;
+    }
+
+    /**
+     * 原地解码[start, end)，解码后的数据不会比编码数据长，写入位置始终不超过读取位置
+     *
+     * @return 解码后数据的结束位置
+     */
+    private static int decodeInPlace(ByteBuffer in, int start, int end) {
+        int read = start;
+        int write = start;
+        while (read < end) {
+            int code = in.get(read++) & 0xFF;
+            int blockEnd = read + code - 1;
+            if (blockEnd > end) {
+                throw new IllegalStateException("invalid COBS code: " + code);
+            }
+            while (read < blockEnd) {
+                in.put(write++, in.get(read++));
+            }
+            if (code < 0xFF && read < end) {
+                in.put(write++, (byte) 0);
+            }
+        }
+        return write;
+    }
+}
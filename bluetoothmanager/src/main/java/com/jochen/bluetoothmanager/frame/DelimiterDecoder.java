@@ -0,0 +1,74 @@
+package com.jochen.bluetoothmanager.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：DelimiterDecoder
+ * 描述：分隔符帧解码器
+ * 以分隔符结尾的帧，例如以"\r\n"结尾的AT指令
+ * new DelimiterDecoder(new byte[]{'\r', '\n'}, true);
+ * 已扫描过的数据不会重复扫描
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class DelimiterDecoder implements FrameDecoder {
+    private final byte[] mDelimiter;
+    private final boolean mStripDelimiter;
+    // 已扫描且确认不包含分隔符的长度，相对in.position()
+    private int mScanned;
+
+    /**
+     * @param delimiter      分隔符
+     * @param stripDelimiter 回调时是否去掉分隔符，去掉分隔符时空帧不回调
+     */
+    public DelimiterDecoder(byte[] delimiter, boolean stripDelimiter) {
+        if (delimiter == null || delimiter.length == 0) {
+            throw new IllegalArgumentException("empty delimiter");
+        }
+        mDelimiter = delimiter.clone();
+        mStripDelimiter = stripDelimiter;
+    }
+
+    @Override
+    public boolean decode(ByteBuffer in, ByteBuffer frame) {
+        while (true) {
+            int position = in.position();
+            int last = in.limit() - mDelimiter.length;
+            int index = -1;
+            for (int i = position + mScanned; i <= last; i++) {
+                if (matches(in, i)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                mScanned = Math.max(0, in.remaining() - mDelimiter.length + 1);
+                return false;
+            }
+            mScanned = 0;
+            int end = index + mDelimiter.length;
+            in.position(end);
+            if (mStripDelimiter && index == position) {
+                // 空帧
+                continue;
+            }
+            frame.limit(mStripDelimiter ? index : end);
+            frame.position(position);
+            return true;
+        }
+    }
+
+    @Override
+    public void reset() {
+        mScanned = 0;
+    }
+
+    private boolean matches(ByteBuffer in, int index) {
+        for (int i = 0; i < mDelimiter.length; i++) {
+            if (in.get(index + i) != mDelimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,176 @@
+package com.jochen.bluetoothmanager.frame;
+
+import com.jochen.bluetoothmanager.function.ReceiveBufferCallback;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：FrameAssembler
+ * 描述：帧重组
+ * BLE通知、SPP读取会任意拆分、合并协议帧，FrameAssembler将收到的数据追加到可增长的缓存中，
+ * 由FrameDecoder解出完整帧后以缓存视图的形式回调，接收过程中不为每个分片分配对象
+ * 缓存只整理（前移）未处理完的数据，不重复拷贝已解出的帧
+ *
+ * FrameAssembler assembler = new FrameAssembler(new LengthFieldDecoder(0, 2, 0, 2, true), callback);
+ * device.registerReceiveBufferCallback(assembler);
+ *
+ * 非线程安全，同一设备的接收数据本身是串行分发的；断开连接后请调用reset清除残留数据
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class FrameAssembler implements ReceiveBufferCallback {
+    // 默认初始缓存大小
+    public static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    // 默认最大缓存大小，超过时认为数据异常
+    public static final int DEFAULT_MAX_CAPACITY = 64 * 1024;
+
+    private final FrameDecoder mDecoder;
+    private final FrameCallback mCallback;
+    private final int mMaxCapacity;
+    // 缓存，[position, limit)为未处理数据
+    private ByteBuffer mBuffer;
+    // 帧视图，与mBuffer共用底层数组
+    private ByteBuffer mFrame;
+    // 未处理数据起始位置，写入数据时mBuffer的position会移动，单独记录
+    private int mReadPosition;
+
+    public FrameAssembler(FrameDecoder decoder, FrameCallback callback) {
+        this(decoder, callback, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_CAPACITY);
+    }
+
+    /**
+     * @param decoder         帧解码器
+     * @param callback        完整帧回调
+     * @param initialCapacity 初始缓存大小
+     * @param maxCapacity     最大缓存大小，应不小于最大帧长度
+     */
+    public FrameAssembler(FrameDecoder decoder, FrameCallback callback, int initialCapacity, int maxCapacity) {
+        mDecoder = decoder;
+        mCallback = callback;
+        mMaxCapacity = Math.max(initialCapacity, maxCapacity);
+        allocate(initialCapacity);
+    }
+
+    @Override
+    public void onReceive(ByteBuffer data) {
+        feed(data);
+    }
+
+    /**
+     * 追加数据并回调解出的完整帧
+     *
+     * @param data 数据[position, limit)，处理后position移动到limit
+     */
+    public void feed(ByteBuffer data) {
+        if (!ensureWritable(data.remaining())) {
+            LogUtils.w(LogUtils.CATEGORY_DATA, "FrameAssembler 缓存超过" + mMaxCapacity + "字节，丢弃已缓存数据");
+            reset();
+            if (!ensureWritable(data.remaining())) {
+                data.position(data.limit());
+                return;
+            }
+        }
+        int limit = mBuffer.limit();
+        mBuffer.limit(limit + data.remaining());
+        mBuffer.position(limit);
+        mBuffer.put(data);
+        mBuffer.position(mReadPosition);
+        decode();
+    }
+
+    /**
+     * 追加数组中的一段数据并回调解出的完整帧
+     */
+    public void feed(byte[] data, int offset, int length) {
+        feed(ByteBuffer.wrap(data, offset, length));
+    }
+
+    /**
+     * 已缓存未处理的数据长度
+     */
+    public int getPendingLength() {
+        return mBuffer.remaining();
+    }
+
+    /**
+     * 清除已缓存数据及解码状态
+     */
+    public void reset() {
+        mBuffer.clear();
+        mBuffer.limit(0);
+        mReadPosition = 0;
+        mDecoder.reset();
+    }
+
+    private void decode() {
+        while (mBuffer.hasRemaining()) {
+            try {
+                if (!mDecoder.decode(mBuffer, mFrame)) {
+                    break;
+                }
+            } catch (IllegalStateException e) {
+                LogUtils.w(LogUtils.CATEGORY_DATA, "FrameAssembler 数据解析失败，丢弃已缓存数据: " + e.getMessage());
+                reset();
+                return;
+            }
+            mReadPosition = mBuffer.position();
+            mCallback.onFrame(mFrame);
+            mBuffer.position(mReadPosition);
+        }
+        mReadPosition = mBuffer.position();
+        if (!mBuffer.hasRemaining()) {
+            // 数据已全部处理，下次从头写入
+            mBuffer.clear();
+            mBuffer.limit(0);
+            mReadPosition = 0;
+        }
+    }
+
+    /**
+     * 确保缓存末尾至少有length字节空间，必要时前移未处理数据或扩容
+     *
+     * @return false 超过最大缓存大小
+     */
+    private boolean ensureWritable(int length) {
+        int pending = mBuffer.limit() - mReadPosition;
+        if (mBuffer.capacity() - mBuffer.limit() >= length) {
+            return true;
+        }
+        if (pending + length > mMaxCapacity) {
+            return false;
+        }
+        if (pending + length <= mBuffer.capacity()) {
+            compact();
+            return true;
+        }
+        int capacity = mBuffer.capacity();
+        while (capacity < pending + length) {
+            capacity = Math.min(capacity << 1, mMaxCapacity);
+        }
+        ByteBuffer old = mBuffer;
+        old.position(mReadPosition);
+        allocate(capacity);
+        mBuffer.clear();
+        mBuffer.put(old);
+        mBuffer.flip();
+        mReadPosition = 0;
+        return true;
+    }
+
+    /**
+     * 未处理数据前移到缓存起始位置
+     */
+    private void compact() {
+        mBuffer.position(mReadPosition);
+        mBuffer.compact();
+        mBuffer.flip();
+        mReadPosition = 0;
+    }
+
+    private void allocate(int capacity) {
+        mBuffer = ByteBuffer.allocate(Math.max(1, capacity));
+        mBuffer.limit(0);
+        mFrame = mBuffer.duplicate();
+    }
+}
@@ -0,0 +1,20 @@
+package com.jochen.bluetoothmanager.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：FrameCallback
+ * 描述：完整帧回调
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface FrameCallback {
+    /**
+     * 收到完整帧
+     * frame的[position, limit)为帧数据（已去除帧头、分隔符及转义），是FrameAssembler内部缓存的视图，
+     * 仅在回调期间有效，需要保留数据时请自行拷贝
+     *
+     * @param frame 帧数据
+     */
+    void onFrame(ByteBuffer frame);
+}
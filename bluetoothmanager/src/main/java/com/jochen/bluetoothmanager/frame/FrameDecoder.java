@@ -0,0 +1,31 @@
+package com.jochen.bluetoothmanager.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：FrameDecoder
+ * 描述：帧解码器
+ * 由FrameAssembler在每次收到数据后反复调用，直到返回false
+ * 解码器可以保存扫描进度等状态，状态中的位置需相对in.position()记录，FrameAssembler整理缓存时会移动数据
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface FrameDecoder {
+    /**
+     * 从in中解出一帧
+     * 成功时将in.position()移动到该帧之后，并将frame的position、limit设置为帧数据的范围，
+     * frame与in共用底层数组，解码器可以在in的已扫描范围内原地改写数据（去转义）
+     * 数据不足时返回false，此时in.position()不变或只跳过可以丢弃的数据（如空帧的分隔符）
+     *
+     * @param in    未处理数据[position, limit)
+     * @param frame 帧数据视图，与in共用底层数组
+     * @return 是否解出一帧
+     * @throws IllegalStateException 数据无法解析，FrameAssembler会丢弃已缓存的数据并调用reset
+     */
+    boolean decode(ByteBuffer in, ByteBuffer frame);
+
+    /**
+     * 清除解码状态
+     */
+    void reset();
+}
@@ -0,0 +1,76 @@
+package com.jochen.bluetoothmanager.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：LengthFieldDecoder
+ * 描述：长度字段帧解码器
+ * 帧长度 = lengthFieldOffset + lengthFieldLength + 长度字段值 + lengthAdjustment
+ * 例：帧格式为 [2字节大端长度][数据]，长度只包含数据，回调时去掉长度字段
+ * new LengthFieldDecoder(0, 2, 0, 2, true);
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class LengthFieldDecoder implements FrameDecoder {
+    private final int mLengthFieldOffset;
+    private final int mLengthFieldLength;
+    private final int mLengthAdjustment;
+    private final int mInitialBytesToStrip;
+    private final boolean mBigEndian;
+
+    /**
+     * @param lengthFieldOffset   长度字段在帧中的偏移
+     * @param lengthFieldLength   长度字段字节数，1、2、3、4
+     * @param lengthAdjustment    长度字段值的修正值，长度字段值包含帧头时为负数
+     * @param initialBytesToStrip 回调时去掉帧开头的字节数
+     * @param bigEndian           长度字段是否为大端
+     */
+    public LengthFieldDecoder(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment, int initialBytesToStrip, boolean bigEndian) {
+        if (lengthFieldLength < 1 || lengthFieldLength > 4) {
+            throw new IllegalArgumentException("lengthFieldLength: " + lengthFieldLength);
+        }
+        if (lengthFieldOffset < 0 || initialBytesToStrip < 0) {
+            throw new IllegalArgumentException("lengthFieldOffset: " + lengthFieldOffset + " initialBytesToStrip: " + initialBytesToStrip);
+        }
+        mLengthFieldOffset = lengthFieldOffset;
+        mLengthFieldLength = lengthFieldLength;
+        mLengthAdjustment = lengthAdjustment;
+        mInitialBytesToStrip = initialBytesToStrip;
+        mBigEndian = bigEndian;
+    }
+
+    @Override
+    public boolean decode(ByteBuffer in, ByteBuffer frame) {
+        int position = in.position();
+        int headerLength = mLengthFieldOffset + mLengthFieldLength;
+        if (in.remaining() < headerLength) {
+            return false;
+        }
+        long frameLength = headerLength + readLength(in, position + mLengthFieldOffset) + mLengthAdjustment;
+        if (frameLength < headerLength || frameLength < mInitialBytesToStrip || frameLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("invalid frame length: " + frameLength);
+        }
+        if (in.remaining() < frameLength) {
+            return false;
+        }
+        int end = position + (int) frameLength;
+        frame.limit(end);
+        frame.position(position + mInitialBytesToStrip);
+        in.position(end);
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        // 无状态
+    }
+
+    private long readLength(ByteBuffer in, int index) {
+        long length = 0;
+        for (int i = 0; i < mLengthFieldLength; i++) {
+            int b = in.get(index + (mBigEndian ? i : mLengthFieldLength - 1 - i)) & 0xFF;
+            length = (length << 8) | b;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,69 @@
+package com.jochen.bluetoothmanager.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：SlipDecoder
+ * 描述：SLIP（RFC 1055）帧解码器
+ * 帧以END(0xC0)结尾，数据中的0xC0、0xDB分别转义为0xDB 0xDC、0xDB 0xDD
+ * 去转义在缓存中原地进行，已处理的数据不会重复处理；空帧不回调
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class SlipDecoder implements FrameDecoder {
+    public static final byte END = (byte) 0xC0;
+    public static final byte ESC = (byte) 0xDB;
+    public static final byte ESC_END = (byte) 0xDC;
+    public static final byte ESC_ESC = (byte) 0xDD;
+
+    // 已读取长度，相对in.position()
+    private int mRead;
+    // 已去转义的长度，相对in.position()
+    private int mWrite;
+    // 上一个字节是否为ESC
+    private boolean mEscape;
+
+    @Override
+    public boolean decode(ByteBuffer in, ByteBuffer frame) {
+        int position = in.position();
+        int limit = in.limit();
+        for (int i = position + mRead; i < limit; i++) {
+            byte b = in.get(i);
+            if (mEscape) {
+                mEscape = false;
+                if (b == ESC_END) {
+                    in.put(position + mWrite++, END);
+                } else if (b == ESC_ESC) {
+                    in.put(position + mWrite++, ESC);
+                } else {
+                    throw new IllegalStateException("invalid SLIP escape: " + (b & 0xFF));
+                }
+            } else if (b == END) {
+                if (mWrite == 0) {
+                    // 空帧，跳过
+                    position = i + 1;
+                    in.position(position);
+                    continue;
+                }
+                frame.limit(position + mWrite);
+                frame.position(position);
+                in.position(i + 1);
+                reset();
+                return true;
+            } else if (b == ESC) {
+                mEscape = true;
+            } else {
+                in.put(position + mWrite++, b);
+            }
+        }
+        mRead = limit - position;
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        mRead = 0;
+        mWrite = 0;
+        mEscape = false;
+    }
+}
@@ -6,13 +6,19 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 
 import com.jochen.bluetoothmanager.base.BaseDevice;
 import com.jochen.bluetoothmanager.ble.BLEDevice;
 import com.jochen.bluetoothmanager.spp.SPPDevice;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 文件名：BluetoothScanCallback
@@ -22,23 +28,106 @@ import java.util.Map;
  */
 public abstract class BluetoothScanCallback extends BroadcastReceiver implements BluetoothAdapter.LeScanCallback {
     private static final String TAG = "BluetoothScanCallback";
-    private Map<BluetoothDevice, BaseDevice> devices = new HashMap<>();
+    // 未合并上报时检查设备丢失的最小间隔（毫秒）
+    private static final long MIN_SWEEP_INTERVAL = 100;
+    // 搜索到的设备，超过TTL或最大数量时淘汰
+    private final ScanRegistry registry = new ScanRegistry();
     //毫秒，若搜索时长小于等于0，则无超时
     private int scanTimeOut;
     private boolean isScanning = true;
+    // 合并上报周期（毫秒），小于等于0则每次广播都回调onScanDevice、onRefreshDevice
+    private int batchInterval;
+    // 本周期待上报的新设备、更新设备、丢失设备，LinkedHashSet合并同一设备的多次广播
+    private final Set<BaseDevice> pendingNew = new LinkedHashSet<>();
+    private final Set<BaseDevice> pendingUpdated = new LinkedHashSet<>();
+    private final Set<BaseDevice> pendingLost = new LinkedHashSet<>();
+    private boolean flushScheduled;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
 
     public BluetoothScanCallback(int scanTimeOut) {
         this.scanTimeOut = scanTimeOut;
     }
 
+    /**
+     * 开启合并上报
+     * 开启后不再回调onScanDevice、onRefreshDevice，改为每batchInterval毫秒在主线程回调一次onScanBatch，
+     * 回调频率与设备数量无关，不随广播频率增加
+     *
+     * @param batchInterval 上报周期（毫秒），如16（每帧）、250，小于等于0关闭合并
+     * @param lostTimeout   设备丢失时间（毫秒），即ScanRegistry的TTL，小于等于0不报告丢失
+     * @return this
+     */
+    public BluetoothScanCallback setBatchInterval(int batchInterval, int lostTimeout) {
+        synchronized (this) {
+            this.batchInterval = batchInterval;
+            registry.setTtl(lostTimeout);
+        }
+        return this;
+    }
+
+    public int getBatchInterval() {
+        return batchInterval;
+    }
+
+    /**
+     * 搜索到的设备表，可在开始搜索前设置TTL、最大数量、信号强度平滑系数
+     * 搜索过程中请通过getDevices、getDevicesByRssi获取设备
+     */
+    public ScanRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 当前搜索到的设备，最久未出现的在前
+     */
+    public List<BaseDevice> getDevices() {
+        synchronized (this) {
+            return registry.getDevices();
+        }
+    }
+
+    /**
+     * 当前搜索到的设备，平滑信号强度最强的在前
+     */
+    public List<BaseDevice> getDevicesByRssi() {
+        synchronized (this) {
+            return registry.getDevicesByRssi();
+        }
+    }
+
     public void reset() {
-        isScanning = true;
-        devices.clear();
+        synchronized (this) {
+            isScanning = true;
+            registry.clear();
+            clearBatch();
+        }
     }
 
     public void stop() {
-        isScanning = false;
-        devices.clear();
+        ScanBatch batch;
+        synchronized (this) {
+            isScanning = false;
+            registry.clear();
+            // 停止前未上报的设备补发一次
+            batch = pendingNew.isEmpty() && pendingUpdated.isEmpty() && pendingLost.isEmpty() ? null
+                    : new ScanBatch(new ArrayList<>(pendingNew), new ArrayList<>(pendingUpdated), new ArrayList<>(pendingLost));
+            clearBatch();
+        }
+        if (batch != null) {
+            final ScanBatch finalBatch = batch;
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onScanBatch(finalBatch);
+                }
+            });
+        }
     }
 
     public int getScanTimeOut() {
@@ -50,57 +139,196 @@ public abstract class BluetoothScanCallback extends BroadcastReceiver implements
     protected void onRefreshDevice(BaseDevice device) {
     }
 
+    /**
+     * 设备丢失（超过TTL未收到广播或超过最大数量被淘汰），未开启合并上报时回调
+     * 丢失的设备再次收到广播时作为新设备回调onScanDevice
+     *
+     * @param device 丢失的设备
+     */
+    protected void onDeviceLost(BaseDevice device) {
+    }
+
+    /**
+     * 合并上报，在主线程中回调，需先调用setBatchInterval开启
+     *
+     * @param batch 本周期的新设备、更新设备、丢失设备
+     */
+    protected void onScanBatch(ScanBatch batch) {
+    }
+
     public abstract void onScanTimeout();
 
     public abstract void onScanCancel();
 
+    /**
+     * BluetoothLeScanner搜索失败，之后会回调onScanCancel
+     *
+     * @param errorCode ScanCallback.SCAN_FAILED_*
+     */
+    public void onScanFailed(int errorCode) {
+    }
+
     @Override
     public void onLeScan(BluetoothDevice device, int rssi, byte[] scanRecord) {
-        if (!isScanning) {
-            return;
-        }
-        if (devices.containsKey(device)) {
-            BLEDevice bleDevice = (BLEDevice) devices.get(device);
-            if (bleDevice != null) {
-                bleDevice.rssi = rssi;
+        BLEDevice bleDevice;
+        boolean isNew;
+        List<BaseDevice> evicted;
+        synchronized (this) {
+            if (!isScanning) {
+                return;
+            }
+            bleDevice = (BLEDevice) registry.get(device);
+            isNew = bleDevice == null;
+            if (isNew) {
+                bleDevice = new BLEDevice(device);
+            }
+            if (!Arrays.equals(bleDevice.scanRecord, scanRecord)) {
+                // 广播数据不变时保留原数组，BLEDevice.getAdvertisingData()复用解析结果
                 bleDevice.scanRecord = scanRecord;
-                onRefreshDevice(bleDevice);
             }
-        } else {
-            BLEDevice bleDevice = new BLEDevice(device);
-            bleDevice.rssi = rssi;
-            bleDevice.scanRecord = scanRecord;
-            devices.put(device, bleDevice);
-            onScanDevice(bleDevice);
+            evicted = registry.put(bleDevice, rssi, SystemClock.elapsedRealtime());
+            if (addToBatch(bleDevice, isNew, evicted)) {
+                return;
+            }
         }
+        report(bleDevice, isNew, evicted);
     }
 
     @Override
     public void onReceive(Context context, Intent intent) {
-        if (BluetoothDevice.ACTION_FOUND.equals(intent.getAction()) && isScanning) {
-            BluetoothDevice device = intent.getParcelableExtra(BluetoothDevice.EXTRA_DEVICE);
-            if (device != null) {
-                if (devices.containsKey(device)) {
-                    SPPDevice sppDevice = (SPPDevice) devices.get(device);
-                    if (sppDevice != null) {
-                        Bundle extras = intent.getExtras();
-                        if (extras != null) {
-                            sppDevice.extras = extras;
-                            sppDevice.rssi = extras.getShort(BluetoothDevice.EXTRA_RSSI);
-                        }
-                        onRefreshDevice(sppDevice);
-                    }
-                } else {
-                    SPPDevice sppDevice = new SPPDevice(device);
-                    Bundle extras = intent.getExtras();
-                    if (extras != null) {
-                        sppDevice.extras = extras;
-                        sppDevice.rssi = extras.getShort(BluetoothDevice.EXTRA_RSSI);
-                    }
-                    devices.put(device, sppDevice);
-                    onScanDevice(sppDevice);
-                }
+        if (!BluetoothDevice.ACTION_FOUND.equals(intent.getAction())) {
+            return;
+        }
+        BluetoothDevice device = intent.getParcelableExtra(BluetoothDevice.EXTRA_DEVICE);
+        if (device == null) {
+            return;
+        }
+        SPPDevice sppDevice;
+        boolean isNew;
+        List<BaseDevice> evicted;
+        synchronized (this) {
+            if (!isScanning) {
+                return;
+            }
+            sppDevice = (SPPDevice) registry.get(device);
+            isNew = sppDevice == null;
+            if (isNew) {
+                sppDevice = new SPPDevice(device);
+            }
+            int rssi = sppDevice.rssi;
+            Bundle extras = intent.getExtras();
+            if (extras != null) {
+                sppDevice.extras = extras;
+                rssi = extras.getShort(BluetoothDevice.EXTRA_RSSI);
+            }
+            evicted = registry.put(sppDevice, rssi, SystemClock.elapsedRealtime());
+            if (addToBatch(sppDevice, isNew, evicted)) {
+                return;
+            }
+        }
+        report(sppDevice, isNew, evicted);
+    }
+
+    /**
+     * 未合并上报时直接回调
+     */
+    private void report(BaseDevice device, boolean isNew, List<BaseDevice> evicted) {
+        for (BaseDevice lost : evicted) {
+            onDeviceLost(lost);
+        }
+        if (isNew) {
+            onScanDevice(device);
+        } else {
+            onRefreshDevice(device);
+        }
+    }
+
+    /**
+     * 记录到本周期，需持有锁
+     *
+     * @return true 已合并，稍后上报; false 未开启合并上报
+     */
+    private boolean addToBatch(BaseDevice device, boolean isNew, List<BaseDevice> evicted) {
+        if (registry.getTtl() > 0) {
+            // 检查设备丢失
+            scheduleFlush();
+        }
+        if (batchInterval <= 0) {
+            return false;
+        }
+        addLost(evicted);
+        if (isNew) {
+            pendingNew.add(device);
+        } else if (!pendingNew.contains(device)) {
+            pendingUpdated.add(device);
+        }
+        scheduleFlush();
+        return true;
+    }
+
+    /**
+     * 需持有锁
+     */
+    private void addLost(List<BaseDevice> lost) {
+        for (BaseDevice device : lost) {
+            if (!pendingNew.remove(device)) {
+                pendingUpdated.remove(device);
+                pendingLost.add(device);
+            }
+        }
+    }
+
+    /**
+     * 需持有锁
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            mHandler.postDelayed(mFlushTask, batchInterval > 0 ? batchInterval : Math.max(MIN_SWEEP_INTERVAL, registry.getTtl() / 2));
+        }
+    }
+
+    /**
+     * 需持有锁
+     */
+    private void clearBatch() {
+        pendingNew.clear();
+        pendingUpdated.clear();
+        pendingLost.clear();
+        flushScheduled = false;
+        mHandler.removeCallbacks(mFlushTask);
+    }
+
+    /**
+     * 检查设备丢失并上报本周期的合并结果，主线程执行
+     */
+    private void flush() {
+        ScanBatch batch = null;
+        List<BaseDevice> expired;
+        synchronized (this) {
+            flushScheduled = false;
+            if (!isScanning) {
+                return;
+            }
+            expired = registry.expire(SystemClock.elapsedRealtime());
+            if (!registry.isEmpty() && registry.getTtl() > 0) {
+                // 仍有设备需要检查丢失
+                scheduleFlush();
+            }
+            if (batchInterval > 0) {
+                addLost(expired);
+                batch = new ScanBatch(new ArrayList<>(pendingNew), new ArrayList<>(pendingUpdated), new ArrayList<>(pendingLost));
+                pendingNew.clear();
+                pendingUpdated.clear();
+                pendingLost.clear();
+            }
+        }
+        if (batch == null) {
+            for (BaseDevice device : expired) {
+                onDeviceLost(device);
             }
+        } else if (!batch.isEmpty()) {
+            onScanBatch(batch);
         }
     }
 }
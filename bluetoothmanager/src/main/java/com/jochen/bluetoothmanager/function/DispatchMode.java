@@ -0,0 +1,30 @@
+package com.jochen.bluetoothmanager.function;
+
+/**
+ * 文件名：DispatchMode
+ * 描述：接收数据的分发线程
+ * 任何模式下同一设备的数据都按接收顺序串行分发
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class DispatchMode {
+    public static final int BINDER    = 0; // 在接收线程中直接分发（BLE为GATT回调线程，SPP为读取线程），默认
+    public static final int MAIN      = 1; // 在主线程中分发
+    public static final int DEDICATED = 2; // 在设备独占的分发线程中分发
+    public static final int CUSTOM    = 3; // 在调用者提供的Executor中分发
+
+    public static String toString(int mode) {
+        switch (mode) {
+            case BINDER:
+                return "接收线程";
+            case MAIN:
+                return "主线程";
+            case DEDICATED:
+                return "独占线程";
+            case CUSTOM:
+                return "自定义";
+            default:
+                return "未知";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jochen.bluetoothmanager.function;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：KeyExtractor
+ * 描述：从帧数据中提取请求/响应的关联键（序号、命令字等）
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface KeyExtractor<K> {
+    /**
+     * 提取关联键
+     * 不能改变frame的position、limit，请使用绝对位置读取；K需要正确实现equals、hashCode
+     *
+     * @param frame 帧数据[position, limit)
+     * @return 关联键，null表示该帧不是响应
+     */
+    K getKey(ByteBuffer frame);
+}
@@ -0,0 +1,29 @@
+package com.jochen.bluetoothmanager.function;
+
+/**
+ * 文件名：OverflowPolicy
+ * 描述：接收队列已满时的处理策略
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class OverflowPolicy {
+    public static final int BLOCK       = 0; // 阻塞接收线程直到队列有空位，SPP停止读取Socket，由RFCOMM流控反压设备
+    public static final int DROP_OLDEST = 1; // 丢弃队列中最早的数据
+    public static final int DROP_NEWEST = 2; // 丢弃新收到的数据
+    public static final int SAMPLE      = 3; // 队列超过一半时按间隔抽样入队，队列满时丢弃新收到的数据
+
+    public static String toString(int policy) {
+        switch (policy) {
+            case BLOCK:
+                return "阻塞";
+            case DROP_OLDEST:
+                return "丢弃最早";
+            case DROP_NEWEST:
+                return "丢弃最新";
+            case SAMPLE:
+                return "抽样";
+            default:
+                return "未知";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jochen.bluetoothmanager.function;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件名：ReceiveBufferCallback
+ * 描述：以ByteBuffer形式接收设备数据，不产生额外的数组拷贝
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface ReceiveBufferCallback {
+    /**
+     * 接收数据
+     * data的[position, limit)为本次接收的数据，可能是接收缓存的视图，仅在回调期间有效，
+     * 需要保留数据时请自行拷贝；回调中可以移动position，不影响其他监听者
+     *
+     * @param data ByteBuffer
+     */
+    void onReceive(ByteBuffer data);
+}
@@ -0,0 +1,20 @@
+package com.jochen.bluetoothmanager.function;
+
+import com.jochen.bluetoothmanager.utils.PooledBuffer;
+
+/**
+ * 文件名：ReceiveLeaseCallback
+ * 描述：以租借缓存的形式接收设备数据
+ * 回调时已为该监听者retain一次，监听者处理完后必须调用data.release()，可以在其他线程release，
+ * release之后不能再访问其中的数据
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface ReceiveLeaseCallback {
+    /**
+     * 接收数据
+     *
+     * @param data 接收缓存，有效数据为data.array()的[0, data.length())
+     */
+    void onReceive(PooledBuffer data);
+}
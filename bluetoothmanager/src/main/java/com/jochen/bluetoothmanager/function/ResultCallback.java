@@ -0,0 +1,17 @@
+package com.jochen.bluetoothmanager.function;
+
+/**
+ * 文件名：ResultCallback
+ * 描述：ResultFuture完成回调
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface ResultCallback<T> {
+    /**
+     * 操作完成（成功或失败）
+     * 在完成操作的线程中执行，若注册时已完成则在注册线程中执行
+     *
+     * @param future 已完成的ResultFuture
+     */
+    void onComplete(ResultFuture<T> future);
+}
@@ -0,0 +1,208 @@
+package com.jochen.bluetoothmanager.function;
+
+import com.jochen.bluetoothmanager.utils.LogUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 文件名：ResultFuture
+ * 描述：异步操作结果
+ * 创建时记录起始时间，完成时记录结束时间，可通过getLatencyNanos获取操作耗时
+ * 既可以通过get阻塞等待，也可以通过addCallback异步接收结果
+ * cancel只将结果置为失败，不会撤回已提交的操作
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class ResultFuture<T> implements Future<T> {
+    // 创建时间
+    private final long startNanos = System.nanoTime();
+    // 完成时间
+    private long completeNanos;
+    private boolean done;
+    private T result;
+    private Throwable cause;
+    private List<ResultCallback<T>> callbacks;
+
+    /**
+     * 创建已失败的ResultFuture
+     *
+     * @param cause 失败原因
+     */
+    public static <T> ResultFuture<T> failed(Throwable cause) {
+        ResultFuture<T> future = new ResultFuture<>();
+        future.setFailure(cause);
+        return future;
+    }
+
+    /**
+     * 设置成功结果
+     *
+     * @param result 结果
+     * @return 是否设置成功，已完成时返回false
+     */
+    public boolean setResult(T result) {
+        return complete(result, null);
+    }
+
+    /**
+     * 设置失败
+     *
+     * @param cause 失败原因
+     * @return 是否设置成功，已完成时返回false
+     */
+    public boolean setFailure(Throwable cause) {
+        return complete(null, cause == null ? new Exception("unknown") : cause);
+    }
+
+    private boolean complete(T result, Throwable cause) {
+        List<ResultCallback<T>> callbacks;
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            completeNanos = System.nanoTime();
+            this.result = result;
+            this.cause = cause;
+            done = true;
+            callbacks = this.callbacks;
+            this.callbacks = null;
+            notifyAll();
+        }
+        if (callbacks != null) {
+            for (ResultCallback<T> callback : callbacks) {
+                notifyCallback(callback);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 添加完成回调
+     *
+     * @param callback 完成回调
+     * @return this
+     */
+    public ResultFuture<T> addCallback(ResultCallback<T> callback) {
+        synchronized (this) {
+            if (!done) {
+                if (callbacks == null) {
+                    callbacks = new ArrayList<>(1);
+                }
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        notifyCallback(callback);
+        return this;
+    }
+
+    /**
+     * 回调异常只记录日志，不影响其他回调及完成结果的调用方
+     */
+    private void notifyCallback(ResultCallback<T> callback) {
+        try {
+            callback.onComplete(this);
+        } catch (Throwable t) {
+            LogUtils.e(LogUtils.CATEGORY_DEFAULT, "ResultFuture回调异常", t);
+        }
+    }
+
+    /**
+     * 取消等待，结果置为失败（CancellationException）并通知回调
+     * 只是让调用方不再等待结果，已加入发送队列的数据不会移除，仍可能被发送
+     *
+     * @param mayInterruptIfRunning 忽略
+     * @return 是否取消成功，已完成时返回false
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return setFailure(new CancellationException());
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cause instanceof CancellationException;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 是否成功完成
+     */
+    public synchronized boolean isSuccess() {
+        return done && cause == null;
+    }
+
+    /**
+     * 已完成且失败
+     */
+    public synchronized boolean isFailed() {
+        return done && cause != null;
+    }
+
+    /**
+     * 失败原因，未完成或成功时为null
+     */
+    public synchronized Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * 获取结果，不阻塞
+     *
+     * @return 未完成或失败时为null
+     */
+    public synchronized T getNow() {
+        return result;
+    }
+
+    /**
+     * 从创建到完成的耗时
+     *
+     * @return 纳秒，未完成时为-1
+     */
+    public synchronized long getLatencyNanos() {
+        return done ? completeNanos - startNanos : -1;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (!done) {
+            wait();
+        }
+        return report();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+        while (!done) {
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return report();
+    }
+
+    private T report() throws ExecutionException {
+        if (cause instanceof CancellationException) {
+            throw (CancellationException) cause;
+        }
+        if (cause != null) {
+            throw new ExecutionException(cause);
+        }
+        return result;
+    }
+}
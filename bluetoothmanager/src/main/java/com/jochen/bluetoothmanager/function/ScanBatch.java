@@ -0,0 +1,67 @@
+package com.jochen.bluetoothmanager.function;
+
+import com.jochen.bluetoothmanager.base.BaseDevice;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 文件名：ScanBatch
+ * 描述：合并后的一批搜索结果
+ * 同一设备在一个上报周期内多次广播只出现一次
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class ScanBatch {
+    private final List<BaseDevice> newDevices;
+    private final List<BaseDevice> updatedDevices;
+    private final List<BaseDevice> lostDevices;
+
+    ScanBatch(List<BaseDevice> newDevices, List<BaseDevice> updatedDevices, List<BaseDevice> lostDevices) {
+        this.newDevices = Collections.unmodifiableList(newDevices);
+        this.updatedDevices = Collections.unmodifiableList(updatedDevices);
+        this.lostDevices = Collections.unmodifiableList(lostDevices);
+    }
+
+    /**
+     * 本周期首次发现的设备
+     */
+    public List<BaseDevice> getNewDevices() {
+        return newDevices;
+    }
+
+    /**
+     * 本周期信号强度、广播数据有更新的已发现设备
+     */
+    public List<BaseDevice> getUpdatedDevices() {
+        return updatedDevices;
+    }
+
+    /**
+     * 超过丢失时间未再收到广播的设备
+     */
+    public List<BaseDevice> getLostDevices() {
+        return lostDevices;
+    }
+
+    public int getNewCount() {
+        return newDevices.size();
+    }
+
+    public int getUpdatedCount() {
+        return updatedDevices.size();
+    }
+
+    public int getLostCount() {
+        return lostDevices.size();
+    }
+
+    public boolean isEmpty() {
+        return newDevices.isEmpty() && updatedDevices.isEmpty() && lostDevices.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ScanBatch{new=" + newDevices.size() + ", updated=" + updatedDevices.size() + ", lost=" + lostDevices.size() + "}";
+    }
+}
@@ -0,0 +1,241 @@
+package com.jochen.bluetoothmanager.function;
+
+import android.bluetooth.BluetoothDevice;
+
+import com.jochen.bluetoothmanager.base.BaseDevice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 文件名：ScanRegistry
+ * 描述：搜索到的设备表
+ * 1、按最后收到广播的时间排列，超过TTL未收到广播或超过最大数量时淘汰最久未出现的设备
+ * 2、信号强度做指数滑动平均（EMA），结果保存在BaseDevice.smoothedRssi，BaseDevice.rssi仍为最新原始值
+ * 3、按平滑信号强度排序的TreeSet，只有取整后的平滑值变化时才调整该设备的位置，不会每次更新都重新排序
+ * 非线程安全，由BluetoothScanCallback加锁访问
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class ScanRegistry {
+    // 默认不过期
+    public static final long DEFAULT_TTL = 0;
+    // 默认最大设备数
+    public static final int DEFAULT_MAX_SIZE = 512;
+    // 默认平滑系数，越大越接近原始值
+    public static final float DEFAULT_RSSI_ALPHA = 0.25f;
+
+    private static class Entry {
+        final BaseDevice device;
+        // 插入序号，平滑值相同时按先发现排序
+        final long sequence;
+        float smoothedRssi;
+        // 排序使用的平滑值（取整），在mByRssi中时不能修改
+        int rank;
+        long lastSeen;
+
+        Entry(BaseDevice device, long sequence) {
+            this.device = device;
+            this.sequence = sequence;
+        }
+    }
+
+    // 信号强、先发现的在前
+    private static final Comparator<Entry> RSSI_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            if (o1.rank != o2.rank) {
+                return o1.rank > o2.rank ? -1 : 1;
+            }
+            return o1.sequence < o2.sequence ? -1 : (o1.sequence == o2.sequence ? 0 : 1);
+        }
+    };
+
+    // 插入顺序即最后出现的顺序，更新时移到末尾
+    private final LinkedHashMap<BluetoothDevice, Entry> mEntries = new LinkedHashMap<>();
+    private final TreeSet<Entry> mByRssi = new TreeSet<>(RSSI_ORDER);
+    private long mTtl = DEFAULT_TTL;
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+    private float mRssiAlpha = DEFAULT_RSSI_ALPHA;
+    private long mSequence;
+
+    /**
+     * 设置TTL
+     *
+     * @param ttl 毫秒，超过该时间未收到广播的设备在expire时移除，小于等于0不过期
+     * @return this
+     */
+    public ScanRegistry setTtl(long ttl) {
+        mTtl = ttl;
+        return this;
+    }
+
+    public long getTtl() {
+        return mTtl;
+    }
+
+    /**
+     * 设置最大设备数，超出时淘汰最久未出现的设备
+     *
+     * @param maxSize 最大设备数
+     * @return this
+     */
+    public ScanRegistry setMaxSize(int maxSize) {
+        mMaxSize = Math.max(1, maxSize);
+        return this;
+    }
+
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * 设置信号强度平滑系数
+     * smoothed = smoothed + alpha * (rssi - smoothed)
+     *
+     * @param alpha (0, 1]，1为不平滑
+     * @return this
+     */
+    public ScanRegistry setRssiAlpha(float alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        mRssiAlpha = alpha;
+        return this;
+    }
+
+    /**
+     * 获取设备
+     *
+     * @param device BluetoothDevice
+     * @return 不存在返回null
+     */
+    public BaseDevice get(BluetoothDevice device) {
+        Entry entry = mEntries.get(device);
+        return entry == null ? null : entry.device;
+    }
+
+    /**
+     * 添加或更新设备
+     *
+     * @param device 设备
+     * @param rssi   本次收到的信号强度
+     * @param now    当前时间（SystemClock.elapsedRealtime）
+     * @return 超过最大数量被淘汰的设备
+     */
+    public List<BaseDevice> put(BaseDevice device, int rssi, long now) {
+        Entry entry = mEntries.remove(device.device);
+        if (entry == null) {
+            entry = new Entry(device, mSequence++);
+            entry.smoothedRssi = rssi;
+            entry.rank = rssi;
+            mByRssi.add(entry);
+        } else {
+            entry.smoothedRssi += mRssiAlpha * (rssi - entry.smoothedRssi);
+            int rank = Math.round(entry.smoothedRssi);
+            if (rank != entry.rank) {
+                mByRssi.remove(entry);
+                entry.rank = rank;
+                mByRssi.add(entry);
+            }
+        }
+        // 重新放入，移到末尾
+        mEntries.put(device.device, entry);
+        entry.lastSeen = now;
+        device.rssi = rssi;
+        device.smoothedRssi = entry.rank;
+        if (mEntries.size() <= mMaxSize) {
+            return Collections.emptyList();
+        }
+        List<BaseDevice> evicted = new ArrayList<>();
+        Iterator<Entry> iterator = mEntries.values().iterator();
+        while (mEntries.size() > mMaxSize) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            mByRssi.remove(eldest);
+            evicted.add(eldest.device);
+        }
+        return evicted;
+    }
+
+    /**
+     * 移除超过TTL未收到广播的设备
+     *
+     * @param now 当前时间（SystemClock.elapsedRealtime）
+     * @return 移除的设备
+     */
+    public List<BaseDevice> expire(long now) {
+        if (mTtl <= 0 || mEntries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<BaseDevice> expired = new ArrayList<>();
+        long deadline = now - mTtl;
+        // 按最后出现时间排列，遇到未过期的即可停止
+        Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.lastSeen >= deadline) {
+                break;
+            }
+            iterator.remove();
+            mByRssi.remove(entry);
+            expired.add(entry.device);
+        }
+        return expired;
+    }
+
+    /**
+     * 移除设备
+     *
+     * @param device BluetoothDevice
+     * @return 移除的设备，不存在返回null
+     */
+    public BaseDevice remove(BluetoothDevice device) {
+        Entry entry = mEntries.remove(device);
+        if (entry == null) {
+            return null;
+        }
+        mByRssi.remove(entry);
+        return entry.device;
+    }
+
+    public void clear() {
+        mEntries.clear();
+        mByRssi.clear();
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    public boolean isEmpty() {
+        return mEntries.isEmpty();
+    }
+
+    /**
+     * 按最后出现时间排列的设备，最久未出现的在前
+     */
+    public List<BaseDevice> getDevices() {
+        List<BaseDevice> devices = new ArrayList<>(mEntries.size());
+        for (Entry entry : mEntries.values()) {
+            devices.add(entry.device);
+        }
+        return devices;
+    }
+
+    /**
+     * 按平滑信号强度排列的设备，信号最强的在前
+     */
+    public List<BaseDevice> getDevicesByRssi() {
+        List<BaseDevice> devices = new ArrayList<>(mByRssi.size());
+        for (Entry entry : mByRssi) {
+            devices.add(entry.device);
+        }
+        return devices;
+    }
+}
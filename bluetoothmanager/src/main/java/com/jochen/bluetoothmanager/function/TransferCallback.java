@@ -0,0 +1,18 @@
+package com.jochen.bluetoothmanager.function;
+
+/**
+ * 文件名：TransferCallback
+ * 描述：数据传输进度回调
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface TransferCallback {
+    /**
+     * 传输进度，每发送完成一个分块回调一次
+     * 在发送完成的线程中执行，请勿执行耗时操作
+     *
+     * @param transferred 已发送字节数
+     * @param total       总字节数，未知时为-1
+     */
+    void onProgress(long transferred, long total);
+}
@@ -0,0 +1,25 @@
+package com.jochen.bluetoothmanager.function;
+
+/**
+ * 文件名：WritePriority
+ * 描述：发送优先级
+ * 每个设备的发送队列分为控制、批量两个通道，控制通道中的数据优先于已排队的批量数据发送，
+ * 保证大数据传输过程中控制命令的延迟
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class WritePriority {
+    public static final int CONTROL = 0; // 控制命令（停止、修改配置等）
+    public static final int BULK    = 1; // 批量数据（文件、日志等）
+
+    public static String toString(int priority) {
+        switch (priority) {
+            case CONTROL:
+                return "控制";
+            case BULK:
+                return "批量";
+            default:
+                return "未知";
+        }
+    }
+}
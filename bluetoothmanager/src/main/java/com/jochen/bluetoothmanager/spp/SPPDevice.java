@@ -3,17 +3,30 @@ package com.jochen.bluetoothmanager.spp;
 import android.bluetooth.BluetoothDevice;
 import android.bluetooth.BluetoothSocket;
 import android.os.Bundle;
+import android.util.Log;
 
 import com.jochen.bluetoothmanager.base.BaseDevice;
 import com.jochen.bluetoothmanager.function.ConnectState;
+import com.jochen.bluetoothmanager.function.ResultFuture;
 import com.jochen.bluetoothmanager.function.UUIDConfig;
+import com.jochen.bluetoothmanager.function.WritePriority;
 import com.jochen.bluetoothmanager.utils.BluetoothUtils;
+import com.jochen.bluetoothmanager.utils.BufferPool;
 import com.jochen.bluetoothmanager.utils.LogUtils;
+import com.jochen.bluetoothmanager.utils.PooledBuffer;
 import com.jochen.bluetoothmanager.utils.ProtocolUtils;
+import com.jochen.bluetoothmanager.utils.TrafficCapture;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 文件名：SPPDevice
@@ -24,8 +37,26 @@ import java.io.OutputStream;
  * 创建时间：2019/8/2
  */
 public class SPPDevice extends BaseDevice {
+    // 默认发送队列长度
+    public static final int DEFAULT_WRITE_QUEUE_CAPACITY = 256;
+    // 默认合并发送的最大字节数
+    public static final int DEFAULT_FLUSH_SIZE = 4096;
+    // 默认合并等待时间（毫秒），0表示队列中没有更多数据时立即发送
+    public static final int DEFAULT_FLUSH_DELAY = 0;
+    // 读取缓存大小范围，根据每次读到的数据量自动调整
+    private static final int MIN_READ_BUFFER_SIZE = 1024;
+    private static final int MAX_READ_BUFFER_SIZE = BufferPool.MAX_SIZE;
+    // 连续多少次读取不足缓存的1/4后缩小缓存
+    private static final int SHRINK_AFTER_READS = 32;
+
     // 搜索到的设备额外信息
     public Bundle extras;
+    // 发送队列长度
+    private int mWriteQueueCapacity = DEFAULT_WRITE_QUEUE_CAPACITY;
+    // 合并发送的最大字节数
+    private int mFlushSize = DEFAULT_FLUSH_SIZE;
+    // 合并等待时间
+    private int mFlushDelay = DEFAULT_FLUSH_DELAY;
 
     /**
      * 不传入UUIDConfig构造时使用默认的SPP UUID
@@ -49,7 +80,7 @@ public class SPPDevice extends BaseDevice {
     @Override
     public boolean connect() {
         if (mUUIDConfig == null) {
-            LogUtils.e("连接设备前请先配置UUID(setUUIDConfig)");
+            LogUtils.e(LogUtils.CATEGORY_CONNECT, "连接设备前请先配置UUID(setUUIDConfig)");
             return false;
         }
         if (connectionState == ConnectState.STATE_DISCONNECTED) {
@@ -63,20 +94,45 @@ public class SPPDevice extends BaseDevice {
 
     @Override
     public void disconnect() {
-        LogUtils.d("[" + device.getName() + "] disconnect");
+        LogUtils.d(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] disconnect");
         clearConnection();
     }
 
+    /**
+     * 异步写入ByteBuffer中[position, limit)的数据
+     * 数据加入发送队列后立即返回，由发送线程写入OutputStream，不会阻塞调用线程
+     * 发送队列已满或未连接时返回的ResultFuture直接失败
+     *
+     * @param data     待写入数据，ResultFuture完成前不能修改
+     * @param priority WritePriority
+     * @return 写入结果
+     */
     @Override
-    public boolean write(byte[] data) {
+    public ResultFuture<Integer> writeAsync(ByteBuffer data, int priority) {
         ConnectedThread r;
         //同步获取通信线程
         synchronized (this) {
-            if (connectionState < ConnectState.STATE_CONNECTED) return false;
-            r = mConnectedThread;
+            r = connectionState < ConnectState.STATE_CONNECTED ? null : mConnectedThread;
         }
-        r.write(data);
-        return true;
+        if (r == null) {
+            return ResultFuture.failed(new IOException("[" + device.getName() + "] not connected"));
+        }
+        return r.write(data, priority);
+    }
+
+    /**
+     * 设置发送策略
+     * 发送线程将队列中的多个小包合并成一次OutputStream.write，减少系统调用及RFCOMM帧开销
+     * 合并数据达到flushSize或等待超过flushDelay时发送，队列长度在下次连接时生效
+     *
+     * @param queueCapacity 每个优先级通道的发送队列长度，队列满时write返回false
+     * @param flushSize     合并发送的最大字节数
+     * @param flushDelay    合并等待时间（毫秒），0表示队列中没有更多数据时立即发送
+     */
+    public void setWritePolicy(int queueCapacity, int flushSize, int flushDelay) {
+        mWriteQueueCapacity = Math.max(1, queueCapacity);
+        mFlushSize = Math.max(1, flushSize);
+        mFlushDelay = Math.max(0, flushDelay);
     }
 
     @Override
@@ -96,7 +152,7 @@ public class SPPDevice extends BaseDevice {
      * @param device The BluetoothDevice that has been connected
      */
     private synchronized void connected(BluetoothSocket socket, BluetoothDevice device) {
-        LogUtils.i("[" + device.getName() + "] connected");
+        LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] connected");
         // Cancel the thread that completed the connection
         if (mConnectThread != null) {
             mConnectThread.cancel();
@@ -137,7 +193,7 @@ public class SPPDevice extends BaseDevice {
      * 连接失败
      */
     private synchronized void connectionFailed() {
-        LogUtils.d("[" + device.getName() + "] connectionFailed");
+        LogUtils.d(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] connectionFailed");
         clearConnection();
     }
 
@@ -145,7 +201,7 @@ public class SPPDevice extends BaseDevice {
      * 连接丢失
      */
     private synchronized void connectionLost() {
-        LogUtils.d("[" + device.getName() + "] connectionLost");
+        LogUtils.d(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] connectionLost");
         clearConnection();
     }
 
@@ -165,14 +221,14 @@ public class SPPDevice extends BaseDevice {
             try {
                 tmp = device.createRfcommSocketToServiceRecord(mUUIDConfig.getRfcommUUID());
             } catch (IOException e) {
-                LogUtils.e("[" + device.getName() + "] rfcomm create() failed", e);
+                LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] rfcomm create() failed", e);
             }
             mmSocket = tmp;
             setConnectState(ConnectState.STATE_CONNECTING);
         }
 
         public void run() {
-            LogUtils.i("[" + device.getName() + "] BEGIN mConnectThread");
+            LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] BEGIN mConnectThread");
             setName("ConnectThread");
 
             // Always cancel discovery because it will slow down a connection
@@ -185,13 +241,13 @@ public class SPPDevice extends BaseDevice {
                 mmSocket.connect();
             } catch (Exception e) {
                 // Close the socket
-                LogUtils.e("[" + device.getName() + "] unable to connect() socket during connection failure", e);
+                LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] unable to connect() socket during connection failure", e);
                 try {
                     if (mmSocket != null) {
                         mmSocket.close();
                     }
                 } catch (IOException e2) {
-                    LogUtils.e("[" + device.getName() + "] unable to close() socket during connection failure", e2);
+                    LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] unable to close() socket during connection failure", e2);
                 }
                 connectionFailed();
                 return;
@@ -212,7 +268,7 @@ public class SPPDevice extends BaseDevice {
                     mmSocket.close();
                 }
             } catch (IOException e) {
-                LogUtils.e("[" + device.getName() + "] close() of connect socket failed", e);
+                LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] close() of connect socket failed", e);
             }
         }
     }
@@ -225,9 +281,14 @@ public class SPPDevice extends BaseDevice {
         private final BluetoothSocket mmSocket;
         private final InputStream mmInStream;
         private final OutputStream mmOutStream;
+        private final WriteThread mmWriteThread;
+        // 当前读取缓存大小
+        private int mmReadSize = MIN_READ_BUFFER_SIZE;
+        // 连续读取量不足缓存1/4的次数
+        private int mmSmallReads;
 
         ConnectedThread(BluetoothSocket socket) {
-            LogUtils.d("[" + device.getName() + "] create ConnectedThread");
+            LogUtils.d(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] create ConnectedThread");
             setConnectState(ConnectState.STATE_CONNECTED);
             mmSocket = socket;
             InputStream tmpIn = null;
@@ -237,63 +298,328 @@ public class SPPDevice extends BaseDevice {
                 tmpIn = socket.getInputStream();
                 tmpOut = socket.getOutputStream();
             } catch (IOException e) {
-                LogUtils.e("[" + device.getName() + "] temp sockets not created", e);
+                LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] temp sockets not created", e);
             }
 
             mmInStream = tmpIn;
             mmOutStream = tmpOut;
+            mmWriteThread = new WriteThread(tmpOut);
             setConnectState(ConnectState.STATE_DATA_READY);
         }
 
         public synchronized void run() {
-            LogUtils.i("[" + device.getName() + "] BEGIN mConnectedThread");
-            byte[] buffer = new byte[1024];
+            LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] BEGIN mConnectedThread");
+            mmWriteThread.start();
             int len;
 
             // Keep listening to the InputStream while connected
             while (connectionState >= ConnectState.STATE_DATA_READY) {
+                // 每次读取从缓存池租借缓存，没有监听者持有时下次读取会复用同一块缓存
+                PooledBuffer buffer = BufferPool.getDefault().acquire(mmReadSize);
                 try {
                     // Read from the InputStream
-                    len = mmInStream.read(buffer);
+                    len = readBatch(buffer.array(), buffer.capacity());
 
                     if (len > 0) {
-                        byte[] receiveBytes = new byte[len];
-                        System.arraycopy(buffer, 0, receiveBytes, 0, len);
-
                         //log receive data
-                        LogUtils.d("[" + device.getName() + "] 接收 长度: " + len + " 数据: " + ProtocolUtils.bytesToHexStr(receiveBytes));
-                        receive(receiveBytes);
+                        if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+                            LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收 长度: " + len + " 数据: " + ProtocolUtils.bytesToHexStr(buffer.array(), 0, len, false));
+                        }
+                        capture(TrafficCapture.DIRECTION_RECEIVED, buffer.array(), 0, len);
+                        buffer.setLength(len);
+                        receive(buffer);
+                        adaptReadSize(len);
                     }
                 } catch (IOException e) {
-                    LogUtils.e("[" + device.getName() + "] disconnected", e);
+                    LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] disconnected", e);
                     connectionLost();
                     break;
+                } finally {
+                    buffer.release();
                 }
             }
         }
 
+        /**
+         * 读取一批数据
+         * 第一次read阻塞等待数据，之后把available()中已到达的数据一次读完，合并成一批交给监听者
+         *
+         * @param array    缓存
+         * @param capacity 缓存大小
+         * @return 读取长度
+         */
+        private int readBatch(byte[] array, int capacity) throws IOException {
+            int len = mmInStream.read(array, 0, capacity);
+            if (len <= 0) {
+                return len;
+            }
+            int available;
+            while (len < capacity && (available = mmInStream.available()) > 0) {
+                int read = mmInStream.read(array, len, Math.min(available, capacity - len));
+                if (read <= 0) {
+                    break;
+                }
+                len += read;
+            }
+            return len;
+        }
+
+        /**
+         * 根据本次读取的数据量调整缓存大小
+         * 读满缓存说明数据突发量超过缓存，立即加倍；持续读取量很小时逐步减半，释放大缓存
+         *
+         * @param len 本次读取长度
+         */
+        private void adaptReadSize(int len) {
+            if (len >= mmReadSize) {
+                if (mmReadSize < MAX_READ_BUFFER_SIZE) {
+                    mmReadSize = Math.min(mmReadSize << 1, MAX_READ_BUFFER_SIZE);
+                    if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+                        LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收缓存扩大至 " + mmReadSize);
+                    }
+                }
+                mmSmallReads = 0;
+            } else if (len <= mmReadSize >> 2 && mmReadSize > MIN_READ_BUFFER_SIZE) {
+                if (++mmSmallReads >= SHRINK_AFTER_READS) {
+                    mmReadSize >>= 1;
+                    mmSmallReads = 0;
+                    if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+                        LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 接收缓存缩小至 " + mmReadSize);
+                    }
+                }
+            } else {
+                mmSmallReads = 0;
+            }
+        }
+
         /**
          * 发送数据
          *
-         * @param buffer 待发送数据
+         * @param buffer   待发送数据[position, limit)
+         * @param priority WritePriority
+         * @return 发送结果
          */
-        void write(byte[] buffer) {
-            try {
-                LogUtils.d("[" + device.getName() + "] 发送 长度: " + buffer.length + " 数据: " + ProtocolUtils.bytesToHexStr(buffer));
-                mmOutStream.write(buffer);
-            } catch (Exception e) {
-                LogUtils.e("[" + device.getName() + "] Exception during write");
+        ResultFuture<Integer> write(ByteBuffer buffer, int priority) {
+            if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+                LogUtils.d(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 发送 长度: " + buffer.remaining() + " 数据: " + ProtocolUtils.bytesToHexStr(buffer));
             }
+            return mmWriteThread.write(buffer, priority);
         }
 
         void cancel() {
+            mmWriteThread.cancel();
             try {
                 if (mmSocket != null) {
                     mmSocket.close();
                 }
             } catch (IOException e) {
-                LogUtils.e("[" + device.getName() + "] close() of connect socket failed", e);
+                LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] close() of connect socket failed", e);
+            }
+        }
+    }
+
+    /**
+     * 待发送数据包
+     * data为调用者数据的slice，不拷贝数据，也不改变调用者ByteBuffer的position
+     */
+    private static class WritePacket {
+        final ByteBuffer data;
+        final int length;
+        final ResultFuture<Integer> future = new ResultFuture<>();
+
+        WritePacket(ByteBuffer data) {
+            this.data = data.slice();
+            this.length = this.data.remaining();
+        }
+    }
+
+    /**
+     * 发送线程
+     * 从有界发送队列中取出数据，合并后写入OutputStream
+     * 控制通道的数据优先于批量通道取出，数据写入OutputStream后完成对应的ResultFuture
+     */
+    private class WriteThread extends Thread {
+        private final OutputStream mmOutStream;
+        private final BlockingQueue<WritePacket> mmControlQueue;
+        private final BlockingQueue<WritePacket> mmBulkQueue;
+        // 两个通道中待发送数据包总数
+        private final Semaphore mmAvailable = new Semaphore(0);
+        // 当前合并批次中的数据包
+        private final List<WritePacket> mmBatch = new ArrayList<>();
+        private volatile boolean mmRunning = true;
+
+        WriteThread(OutputStream outStream) {
+            mmOutStream = outStream;
+            mmControlQueue = new ArrayBlockingQueue<>(mWriteQueueCapacity);
+            mmBulkQueue = new ArrayBlockingQueue<>(mWriteQueueCapacity);
+        }
+
+        ResultFuture<Integer> write(ByteBuffer buffer, int priority) {
+            if (!mmRunning || mmOutStream == null) {
+                return ResultFuture.failed(new IOException("[" + device.getName() + "] write thread stopped"));
             }
+            BlockingQueue<WritePacket> queue = priority == WritePriority.BULK ? mmBulkQueue : mmControlQueue;
+            WritePacket packet = new WritePacket(buffer);
+            if (!queue.offer(packet)) {
+                if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.WARN)) {
+                    LogUtils.w(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] " + WritePriority.toString(priority) + "发送队列已满");
+                }
+                packet.future.setFailure(new IOException("[" + device.getName() + "] write queue full"));
+            } else if (mmRunning) {
+                mmAvailable.release();
+            } else if (queue.remove(packet)) {
+                // 入队时发送线程已结束
+                packet.future.setFailure(new IOException("[" + device.getName() + "] write thread stopped"));
+            }
+            return packet.future;
+        }
+
+        public void run() {
+            setName("WriteThread");
+            byte[] flushBuffer = new byte[mFlushSize];
+            int len = 0;
+            try {
+                while (mmRunning) {
+                    mmAvailable.acquire();
+                    WritePacket packet = pollPacket();
+                    long deadline = System.currentTimeMillis() + mFlushDelay;
+                    while (packet != null) {
+                        if (flushBuffer.length != mFlushSize && len == 0) {
+                            // 发送策略变更
+                            flushBuffer = new byte[mFlushSize];
+                        }
+                        if (len + packet.length > flushBuffer.length) {
+                            // 合并缓存放不下，先发送已合并的数据
+                            if (len > 0) {
+                                mmOutStream.write(flushBuffer, 0, len);
+                                len = 0;
+                                completeBatch(flushBuffer);
+                            }
+                            if (packet.length >= flushBuffer.length) {
+                                // 大包直接发送
+                                writeDirect(packet.data, flushBuffer);
+                                setResult(packet);
+                                packet = null;
+                            }
+                        }
+                        if (packet != null) {
+                            packet.data.get(flushBuffer, len, packet.length);
+                            len += packet.length;
+                            mmBatch.add(packet);
+                        }
+                        if (len >= flushBuffer.length) {
+                            break;
+                        }
+                        long wait = deadline - System.currentTimeMillis();
+                        boolean available = wait > 0 ? mmAvailable.tryAcquire(wait, TimeUnit.MILLISECONDS) : mmAvailable.tryAcquire();
+                        packet = available ? pollPacket() : null;
+                    }
+                    if (len > 0) {
+                        mmOutStream.write(flushBuffer, 0, len);
+                        len = 0;
+                    }
+                    mmOutStream.flush();
+                    completeBatch(flushBuffer);
+                }
+            } catch (InterruptedException e) {
+                // cancel
+            } catch (IOException e) {
+                LogUtils.e(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] Exception during write", e);
+                if (mmRunning) {
+                    connectionLost();
+                }
+            } finally {
+                // 无论发送线程因何结束，未发送的数据都要失败，不能让调用方一直等待
+                failPending();
+            }
+        }
+
+        /**
+         * 不经过合并直接写入OutputStream
+         * 堆内ByteBuffer直接写入其底层数组，否则借用合并缓存分段拷贝
+         *
+         * @param data        待发送数据
+         * @param flushBuffer 合并缓存，此时为空
+         */
+        private void writeDirect(ByteBuffer data, byte[] flushBuffer) throws IOException {
+            if (data.hasArray()) {
+                mmOutStream.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+                capture(TrafficCapture.DIRECTION_SENT, data);
+                return;
+            }
+            ByteBuffer sent = data.duplicate();
+            while (data.hasRemaining()) {
+                int count = Math.min(flushBuffer.length, data.remaining());
+                data.get(flushBuffer, 0, count);
+                mmOutStream.write(flushBuffer, 0, count);
+            }
+            capture(TrafficCapture.DIRECTION_SENT, sent);
+        }
+
+        /**
+         * 取出下一个待发送数据包，控制通道优先
+         * 调用前需获取mmAvailable
+         */
+        private WritePacket pollPacket() {
+            WritePacket packet = mmControlQueue.poll();
+            return packet != null ? packet : mmBulkQueue.poll();
+        }
+
+        /**
+         * 合并批次已写入OutputStream
+         * 批次中的数据包按顺序从flushBuffer起始位置排列，写入后逐包抓包记录
+         *
+         * @param flushBuffer 合并缓存
+         */
+        private void completeBatch(byte[] flushBuffer) {
+            int offset = 0;
+            for (int i = 0; i < mmBatch.size(); i++) {
+                WritePacket packet = mmBatch.get(i);
+                capture(TrafficCapture.DIRECTION_SENT, flushBuffer, offset, packet.length);
+                offset += packet.length;
+                setResult(packet);
+            }
+            mmBatch.clear();
+        }
+
+        /**
+         * 发送线程结束，未发送的数据全部失败
+         */
+        private void failPending() {
+            mmRunning = false;
+            IOException e = new IOException("[" + device.getName() + "] disconnected");
+            for (WritePacket packet : mmBatch) {
+                setFailure(packet, e);
+            }
+            mmBatch.clear();
+            WritePacket packet;
+            while ((packet = mmControlQueue.poll()) != null || (packet = mmBulkQueue.poll()) != null) {
+                setFailure(packet, e);
+            }
+        }
+
+        /**
+         * 回调发送结果，回调异常不能结束发送线程
+         */
+        private void setResult(WritePacket packet) {
+            try {
+                packet.future.setResult(packet.length);
+            } catch (RuntimeException e) {
+                LogUtils.e(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 发送回调异常", e);
+            }
+        }
+
+        private void setFailure(WritePacket packet, Exception cause) {
+            try {
+                packet.future.setFailure(cause);
+            } catch (RuntimeException e) {
+                LogUtils.e(LogUtils.CATEGORY_DATA, "[" + device.getName() + "] 发送回调异常", e);
+            }
+        }
+
+        void cancel() {
+            mmRunning = false;
+            interrupt();
         }
     }
 }
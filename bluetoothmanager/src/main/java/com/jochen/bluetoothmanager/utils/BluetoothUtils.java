@@ -178,14 +178,14 @@ public class BluetoothUtils {
             switch (device.getBondState()) {
                 case BluetoothDevice.BOND_NONE:
                     bondCallbackMap.remove(device);
-                    LogUtils.i("[" + device.getName() + "] mac: " + device.getAddress() + " BOND_NONE");
+                    LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] mac: " + device.getAddress() + " BOND_NONE");
                     break;
                 case BluetoothDevice.BOND_BONDING:
-                    LogUtils.i("[" + device.getName() + "] mac: " + device.getAddress() + " BOND_BONDING");
+                    LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] mac: " + device.getAddress() + " BOND_BONDING");
                     break;
                 case BluetoothDevice.BOND_BONDED:
                     bondCallbackMap.remove(device);
-                    LogUtils.i("[" + device.getName() + "] mac: " + device.getAddress() + " BOND_BONDED");
+                    LogUtils.i(LogUtils.CATEGORY_CONNECT, "[" + device.getName() + "] mac: " + device.getAddress() + " BOND_BONDED");
                     break;
             }
             bondCallback.onBondState(device.getBondState());
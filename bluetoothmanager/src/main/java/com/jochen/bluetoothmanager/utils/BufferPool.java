@@ -0,0 +1,84 @@
+package com.jochen.bluetoothmanager.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 文件名：BufferPool
+ * 描述：接收缓存池
+ * 按2的幂分为MIN_SIZE ~ MAX_SIZE的若干档，申请时取不小于所需容量的最小档，
+ * 每档最多缓存maxPerClass个空闲缓存，超出后交给GC；超过MAX_SIZE的申请不入池
+ *
+ * PooledBuffer buffer = BufferPool.getDefault().acquire(1024);
+ * ...
+ * buffer.release();
+ *
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class BufferPool {
+    // 最小档容量
+    public static final int MIN_SIZE = 256;
+    // 最大档容量
+    public static final int MAX_SIZE = 64 * 1024;
+    // 默认每档最多缓存的空闲缓存数
+    public static final int DEFAULT_MAX_PER_CLASS = 16;
+
+    private static final int MIN_SHIFT = 8;
+    private static final int CLASS_COUNT = 9;
+    private static final BufferPool DEFAULT = new BufferPool(DEFAULT_MAX_PER_CLASS);
+
+    private final BlockingQueue<PooledBuffer>[] mFreeBuffers;
+
+    /**
+     * 所有设备共用的缓存池
+     */
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    @SuppressWarnings("unchecked")
+    public BufferPool(int maxPerClass) {
+        mFreeBuffers = (BlockingQueue<PooledBuffer>[]) new BlockingQueue<?>[CLASS_COUNT];
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            mFreeBuffers[i] = new ArrayBlockingQueue<>(Math.max(1, maxPerClass));
+        }
+    }
+
+    /**
+     * 申请缓存，引用计数为1，length为0
+     * 使用完后必须调用release归还
+     *
+     * @param capacity 所需容量
+     * @return PooledBuffer，容量不小于capacity
+     */
+    public PooledBuffer acquire(int capacity) {
+        if (capacity > MAX_SIZE) {
+            return new PooledBuffer(null, new byte[capacity]);
+        }
+        int index = sizeClass(capacity);
+        PooledBuffer buffer = mFreeBuffers[index].poll();
+        if (buffer == null) {
+            buffer = new PooledBuffer(this, new byte[MIN_SIZE << index]);
+        }
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * 引用计数归零后由PooledBuffer调用
+     */
+    void recycle(PooledBuffer buffer) {
+        mFreeBuffers[sizeClass(buffer.capacity())].offer(buffer);
+    }
+
+    /**
+     * 容量对应的档位
+     */
+    private static int sizeClass(int capacity) {
+        if (capacity <= MIN_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jochen.bluetoothmanager.utils;
+
+import java.util.Arrays;
+
+/**
+ * 文件名：CallbackRegistry
+ * 描述：写时复制的回调列表
+ * 注册、解绑时复制数组并整体替换，分发时读取当前数组快照遍历，不加锁、不分配对象，
+ * 分发过程中注册或解绑不会抛出ConcurrentModificationException，下一次分发生效
+ *
+ * for (ReceiveDataCallback callback : registry.snapshot()) {
+ *     callback.onReceive(data);
+ * }
+ *
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class CallbackRegistry<T> {
+    private final T[] mEmpty;
+    private volatile T[] mCallbacks;
+
+    /**
+     * @param empty 长度为0的回调数组，用于确定数组类型
+     */
+    public CallbackRegistry(T[] empty) {
+        mEmpty = empty;
+        mCallbacks = empty;
+    }
+
+    /**
+     * 注册回调
+     *
+     * @param callback 回调
+     */
+    public synchronized void add(T callback) {
+        T[] callbacks = mCallbacks;
+        T[] newCallbacks = Arrays.copyOf(callbacks, callbacks.length + 1);
+        newCallbacks[callbacks.length] = callback;
+        mCallbacks = newCallbacks;
+    }
+
+    /**
+     * 解绑回调
+     *
+     * @param callback 回调
+     * @return 是否已注册
+     */
+    public synchronized boolean remove(T callback) {
+        T[] callbacks = mCallbacks;
+        for (int i = 0; i < callbacks.length; i++) {
+            if (callbacks[i] == callback || (callback != null && callback.equals(callbacks[i]))) {
+                if (callbacks.length == 1) {
+                    mCallbacks = mEmpty;
+                    return true;
+                }
+                T[] newCallbacks = Arrays.copyOf(callbacks, callbacks.length - 1);
+                System.arraycopy(callbacks, i + 1, newCallbacks, i, callbacks.length - i - 1);
+                mCallbacks = newCallbacks;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清空回调
+     */
+    public synchronized void clear() {
+        mCallbacks = mEmpty;
+    }
+
+    /**
+     * 当前回调数组快照，只读，不能修改其中的元素
+     */
+    public T[] snapshot() {
+        return mCallbacks;
+    }
+
+    public boolean isEmpty() {
+        return mCallbacks.length == 0;
+    }
+
+    public int size() {
+        return mCallbacks.length;
+    }
+}
@@ -0,0 +1,408 @@
+package com.jochen.bluetoothmanager.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 文件名：HashedWheelTimer
+ * 描述：时间轮定时器
+ * 一个工作线程按tick推进时间轮，任务按到期tick散列到对应的槽中，添加、取消都是O(1)，
+ * 取消只做标记并放入取消队列，工作线程下次唤醒时将其从槽中移除，不会像java.util.Timer那样留在队列中直到到期
+ * 精度为一个tick；工作线程直接休眠到下一个有任务的槽，跳过空槽，没有待执行任务时一直休眠，不会按tick空转
+ * 任务在工作线程中执行，请勿执行耗时操作；不再使用时调用stop结束工作线程
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class HashedWheelTimer {
+    // 默认tick时长（毫秒）
+    public static final long DEFAULT_TICK_DURATION = 10;
+    // 默认槽数
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int STATE_INIT      = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED   = 2;
+
+    // 每个tick最多从新增队列转移的任务数，避免大量添加时阻塞到期任务的执行
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        // 相对timer启动时间的到期时间（纳秒）
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+        // 以下字段只在工作线程中访问
+        // 到期tick
+        private long expireTick;
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消任务
+         *
+         * @return false 任务已执行或已取消
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+                return false;
+            }
+            timer.mPendingCount.decrementAndGet();
+            timer.mCancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+            timer.mPendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LogUtils.e(LogUtils.CATEGORY_DEFAULT, "定时任务执行异常", t);
+            }
+        }
+    }
+
+    /**
+     * 时间轮的槽，双向链表，只在工作线程中访问
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        /**
+         * 执行到期tick不晚于tick的任务，已取消的任务在expire中忽略
+         * 按到期tick而不是剩余圈数判断，跳过的tick不影响结果
+         */
+        void expire(long tick) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                if (timeout.expireTick <= tick) {
+                    Timeout next = remove(timeout);
+                    timeout.expire();
+                    timeout = next;
+                } else {
+                    timeout = timeout.next;
+                }
+            }
+        }
+    }
+
+    private final String mName;
+    private final long mTickNanos;
+    private final Bucket[] mWheel;
+    private final int mMask;
+    private final long mStartTime = System.nanoTime();
+    private final Queue<Timeout> mNewTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> mCancelledTimeouts = new ConcurrentLinkedQueue<>();
+    // 未执行且未取消的任务数
+    private final AtomicInteger mPendingCount = new AtomicInteger();
+    private final AtomicBoolean mStarted = new AtomicBoolean();
+    private volatile Thread mWorker;
+    private volatile boolean mStopped;
+    // 工作线程计划唤醒的时间（相对启动时间，纳秒），休眠到添加新任务时为Long.MAX_VALUE
+    private volatile long mWakeupTime = Long.MAX_VALUE;
+    // 下一个待处理的tick，只在工作线程中访问
+    private long mTick;
+
+    public HashedWheelTimer(String name) {
+        this(name, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param name         工作线程名称
+     * @param tickDuration tick时长（毫秒）
+     * @param wheelSize    槽数，向上取整为2的幂
+     */
+    public HashedWheelTimer(String name, long tickDuration, int wheelSize) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickDuration and wheelSize must be positive");
+        }
+        mName = name;
+        mTickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        mWheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            mWheel[i] = new Bucket();
+        }
+        mMask = size - 1;
+    }
+
+    /**
+     * 延时执行任务
+     *
+     * @param task  待执行任务
+     * @param delay 延时（毫秒）
+     * @return Timeout，可用于取消
+     * @throws IllegalStateException 定时器已停止
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        if (task == null) {
+            throw new NullPointerException("task == null");
+        }
+        if (mStopped) {
+            throw new IllegalStateException(mName + " stopped");
+        }
+        start();
+        long deadline = System.nanoTime() - mStartTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(this, task, deadline);
+        mNewTimeouts.add(timeout);
+        mPendingCount.incrementAndGet();
+        if ((deadline / mTickNanos + 1) * mTickNanos < mWakeupTime) {
+            // 工作线程休眠到该任务到期之后，提前唤醒
+            LockSupport.unpark(mWorker);
+        }
+        if (mStopped) {
+            // 与stop并发，工作线程可能已经退出，不会再执行该任务
+            timeout.cancel();
+            throw new IllegalStateException(mName + " stopped");
+        }
+        return timeout;
+    }
+
+    /**
+     * 停止定时器，未执行的任务全部取消，之后不能再添加任务
+     * 在其他线程调用时等待工作线程退出，正在执行的任务会执行完
+     */
+    public void stop() {
+        mStopped = true;
+        if (mStarted.compareAndSet(false, true)) {
+            // 未启动过，没有工作线程
+            return;
+        }
+        while (mWorker == null) {
+            Thread.yield();
+        }
+        Thread worker = mWorker;
+        LockSupport.unpark(worker);
+        if (worker == Thread.currentThread()) {
+            return;
+        }
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 未执行且未取消的任务数
+     */
+    public int getPendingCount() {
+        return mPendingCount.get();
+    }
+
+    private void start() {
+        if (!mStarted.compareAndSet(false, true)) {
+            // 其他线程正在启动，或未启动就已停止
+            while (mWorker == null && !mStopped) {
+                Thread.yield();
+            }
+            return;
+        }
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                work();
+            }
+        }, mName);
+        worker.setDaemon(true);
+        mWorker = worker;
+        worker.start();
+    }
+
+    private void work() {
+        while (!mStopped) {
+            processCancelled();
+            boolean transferred = transferNewTimeouts();
+            expireTimeouts();
+            if (mPendingCount.get() == 0) {
+                idle();
+            } else if (transferred) {
+                sleepUntil(nextWakeupTime());
+            }
+        }
+        cancelRemaining();
+    }
+
+    /**
+     * 定时器停止后取消槽中及新增队列中的任务
+     */
+    private void cancelRemaining() {
+        for (Bucket bucket : mWheel) {
+            while (!bucket.isEmpty()) {
+                Timeout timeout = bucket.head;
+                bucket.remove(timeout);
+                timeout.cancel();
+            }
+        }
+        while (true) {
+            Timeout timeout = mNewTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            timeout.cancel();
+        }
+        mCancelledTimeouts.clear();
+    }
+
+    /**
+     * 执行已经过去的tick中到期的任务
+     * tick t在时间到达(t + 1) * tick时长后处理，任务不会提前执行
+     * 休眠期间跳过的槽一并处理，每个槽最多处理一次
+     */
+    private void expireTimeouts() {
+        long lastTick = (System.nanoTime() - mStartTime) / mTickNanos - 1;
+        if (lastTick < mTick) {
+            return;
+        }
+        long end = Math.min(lastTick, mTick + mMask);
+        for (long tick = mTick; tick <= end; tick++) {
+            Bucket bucket = mWheel[(int) (tick & mMask)];
+            if (!bucket.isEmpty()) {
+                bucket.expire(lastTick);
+            }
+        }
+        mTick = lastTick + 1;
+    }
+
+    /**
+     * 下一个有任务的槽的处理时间，槽中的任务可能属于之后的圈，最晚一圈后重新计算
+     */
+    private long nextWakeupTime() {
+        for (int i = 0; i <= mMask; i++) {
+            if (!mWheel[(int) ((mTick + i) & mMask)].isEmpty()) {
+                return (mTick + i + 1) * mTickNanos;
+            }
+        }
+        return (mTick + mMask + 1) * mTickNanos;
+    }
+
+    /**
+     * 休眠到wakeupTime，添加了更早到期的任务时被提前唤醒
+     */
+    private void sleepUntil(long wakeupTime) {
+        mWakeupTime = wakeupTime;
+        while (mNewTimeouts.isEmpty() && !mStopped) {
+            long sleepNanos = wakeupTime - (System.nanoTime() - mStartTime);
+            if (sleepNanos <= 0) {
+                break;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+        mWakeupTime = Long.MAX_VALUE;
+    }
+
+    /**
+     * 没有待执行任务，休眠直到添加新任务
+     */
+    private void idle() {
+        mWakeupTime = Long.MAX_VALUE;
+        while (mPendingCount.get() == 0 && !mStopped) {
+            processCancelled();
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * 新增任务放入对应的槽
+     *
+     * @return false 新增队列中还有任务未转移
+     */
+    private boolean transferNewTimeouts() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = mNewTimeouts.poll();
+            if (timeout == null) {
+                return true;
+            }
+            if (timeout.state.get() != STATE_INIT) {
+                continue;
+            }
+            timeout.expireTick = timeout.deadline / mTickNanos;
+            // 已过期的任务放到当前槽，下次处理时执行
+            long tick = Math.max(timeout.expireTick, mTick);
+            mWheel[(int) (tick & mMask)].add(timeout);
+        }
+        return false;
+    }
+
+    private void processCancelled() {
+        while (true) {
+            Timeout timeout = mCancelledTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+}
@@ -4,17 +4,118 @@ import android.util.Log;
 
 import com.jochen.bluetoothmanager.BuildConfig;
 
+import java.util.Arrays;
 import java.util.Locale;
 
 /**
  * 文件名：LogUtils
  * 描述：BluetoothManager内部使用的日志类
+ * 按分类设置日志级别，收发数据等高频日志使用分类接口，先判断isLoggable再拼接字符串：
+ * if (LogUtils.isLoggable(LogUtils.CATEGORY_DATA, Log.DEBUG)) {
+ *     LogUtils.d(LogUtils.CATEGORY_DATA, "接收 数据: " + ProtocolUtils.bytesToHexStr(data));
+ * }
+ * 分类接口使用固定TAG，不获取调用栈
  * 创建人：jochen.zhang
  * 创建时间：2019/7/26
  */
 public class LogUtils {
     //获取项目状态
     public static boolean DEBUG = BuildConfig.DEBUG;
+
+    // 日志分类
+    public static final int CATEGORY_DEFAULT = 0; // 其他
+    public static final int CATEGORY_DATA    = 1; // 收发数据
+    public static final int CATEGORY_GATT    = 2; // GATT操作
+    public static final int CATEGORY_CONNECT = 3; // 连接状态
+    public static final int CATEGORY_SCAN    = 4; // 搜索设备
+    private static final String[] CATEGORY_TAGS = {
+            "BluetoothManager", "BluetoothManager-Data", "BluetoothManager-Gatt", "BluetoothManager-Connect", "BluetoothManager-Scan"
+    };
+    // 关闭日志的级别
+    public static final int LEVEL_OFF = Integer.MAX_VALUE;
+    // 各分类的最低输出级别，修改时整体替换
+    private static volatile int[] sLevels = {Log.VERBOSE, Log.VERBOSE, Log.VERBOSE, Log.VERBOSE, Log.VERBOSE};
+
+    /**
+     * 延迟生成日志内容，日志级别未开启时不会调用
+     */
+    public interface Supplier {
+        String get();
+    }
+
+    /**
+     * 指定分类、级别的日志是否输出
+     * 需要格式化参数的日志先调用此方法判断，避免无效的字符串拼接
+     *
+     * @param category 日志分类
+     * @param level    Log.VERBOSE ~ Log.ERROR
+     */
+    public static boolean isLoggable(int category, int level) {
+        return DEBUG && level >= sLevels[category];
+    }
+
+    /**
+     * 设置分类的最低输出级别
+     *
+     * @param category 日志分类
+     * @param level    Log.VERBOSE ~ Log.ERROR，LEVEL_OFF关闭
+     */
+    public static synchronized void setLevel(int category, int level) {
+        int[] levels = sLevels.clone();
+        levels[category] = level;
+        sLevels = levels;
+    }
+
+    /**
+     * 设置所有分类的最低输出级别
+     *
+     * @param level Log.VERBOSE ~ Log.ERROR，LEVEL_OFF关闭
+     */
+    public static synchronized void setLevel(int level) {
+        int[] levels = new int[CATEGORY_TAGS.length];
+        Arrays.fill(levels, level);
+        sLevels = levels;
+    }
+
+    public static int getLevel(int category) {
+        return sLevels[category];
+    }
+
+    public static void log(int category, int level, String content) {
+        if (isLoggable(category, level)) Log.println(level, CATEGORY_TAGS[category], content);
+    }
+
+    public static void log(int category, int level, Supplier supplier) {
+        if (isLoggable(category, level)) Log.println(level, CATEGORY_TAGS[category], supplier.get());
+    }
+
+    public static void v(int category, String content) {
+        log(category, Log.VERBOSE, content);
+    }
+
+    public static void d(int category, String content) {
+        log(category, Log.DEBUG, content);
+    }
+
+    public static void d(int category, Supplier supplier) {
+        log(category, Log.DEBUG, supplier);
+    }
+
+    public static void i(int category, String content) {
+        log(category, Log.INFO, content);
+    }
+
+    public static void w(int category, String content) {
+        log(category, Log.WARN, content);
+    }
+
+    public static void e(int category, String content) {
+        log(category, Log.ERROR, content);
+    }
+
+    public static void e(int category, String content, Throwable tr) {
+        if (isLoggable(category, Log.ERROR)) Log.e(CATEGORY_TAGS[category], content, tr);
+    }
     /**
      * 该参数需要根据实际情况来设置才能准确获取期望的调用信息，比如：
      * 在Java中，该参数应该为3
@@ -35,63 +136,63 @@ public class LogUtils {
     }
 
     public static void v(String content) {
-        if (DEBUG) Log.v(getPrefix(), content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.VERBOSE)) Log.v(getPrefix(), content);
     }
 
     public static void v(String content, Throwable tr) {
-        if (DEBUG) Log.v(getPrefix(), content, tr);
+        if (isLoggable(CATEGORY_DEFAULT, Log.VERBOSE)) Log.v(getPrefix(), content, tr);
     }
 
     public static void v(String tag, String content) {
-        if (DEBUG) Log.v(tag, content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.VERBOSE)) Log.v(tag, content);
     }
 
     public static void d(String content) {
-        if (DEBUG) Log.d(getPrefix(), content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.DEBUG)) Log.d(getPrefix(), content);
     }
 
     public static void d(String content, Throwable tr) {
-        if (DEBUG) Log.d(getPrefix(), content, tr);
+        if (isLoggable(CATEGORY_DEFAULT, Log.DEBUG)) Log.d(getPrefix(), content, tr);
     }
 
     public static void d(String tag, String content) {
-        if (DEBUG) Log.d(tag, content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.DEBUG)) Log.d(tag, content);
     }
 
     public static void i(String content) {
-        if (DEBUG) Log.i(getPrefix(), content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.INFO)) Log.i(getPrefix(), content);
     }
 
     public static void i(String content, Throwable tr) {
-        if (DEBUG) Log.i(getPrefix(), content, tr);
+        if (isLoggable(CATEGORY_DEFAULT, Log.INFO)) Log.i(getPrefix(), content, tr);
     }
 
     public static void i(String tag, String content) {
-        if (DEBUG) Log.i(tag, content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.INFO)) Log.i(tag, content);
     }
 
     public static void w(String content) {
-        if (DEBUG) Log.e(getPrefix(), content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.WARN)) Log.w(getPrefix(), content);
     }
 
     public static void w(String content, Throwable tr) {
-        if (DEBUG) Log.w(getPrefix(), content, tr);
+        if (isLoggable(CATEGORY_DEFAULT, Log.WARN)) Log.w(getPrefix(), content, tr);
     }
 
     public static void w(String tag, String content) {
-        if (DEBUG) Log.w(tag, content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.WARN)) Log.w(tag, content);
     }
 
     public static void e(String content) {
-        if (DEBUG) Log.e(getPrefix(), content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.ERROR)) Log.e(getPrefix(), content);
     }
 
     public static void e(String content, Throwable tr) {
-        if (DEBUG) Log.e(getPrefix(), content, tr);
+        if (isLoggable(CATEGORY_DEFAULT, Log.ERROR)) Log.e(getPrefix(), content, tr);
     }
 
     public static void e(String tag, String content) {
-        if (DEBUG) Log.e(tag, content);
+        if (isLoggable(CATEGORY_DEFAULT, Log.ERROR)) Log.e(tag, content);
     }
 
     public static String showAllElementsInfo() {
@@ -0,0 +1,128 @@
+package com.jochen.bluetoothmanager.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文件名：PooledBuffer
+ * 描述：带引用计数的缓存
+ * 数据为array()的[0, length())，引用计数归零时归还BufferPool，之后不能再访问其中的数据
+ * 需要跨线程持有时先retain，用完后release；需要长期保存数据请使用copy()
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public final class PooledBuffer {
+    // 所属缓存池，null表示不入池
+    private final BufferPool mPool;
+    private final byte[] mArray;
+    private final AtomicInteger mRefCnt = new AtomicInteger(1);
+    private int mLength;
+
+    PooledBuffer(BufferPool pool, byte[] array) {
+        mPool = pool;
+        mArray = array;
+    }
+
+    /**
+     * 包装已有数组，不入池，release不会回收该数组
+     *
+     * @param data 数据
+     * @return PooledBuffer，引用计数为1
+     */
+    public static PooledBuffer wrap(byte[] data) {
+        PooledBuffer buffer = new PooledBuffer(null, data);
+        buffer.mLength = data.length;
+        return buffer;
+    }
+
+    /**
+     * 底层数组，有效数据为[0, length())
+     */
+    public byte[] array() {
+        return mArray;
+    }
+
+    public int capacity() {
+        return mArray.length;
+    }
+
+    public int length() {
+        return mLength;
+    }
+
+    /**
+     * 设置有效数据长度，由写入数据的一方调用
+     *
+     * @param length 有效数据长度
+     */
+    public void setLength(int length) {
+        if (length < 0 || length > mArray.length) {
+            throw new IndexOutOfBoundsException("length: " + length + " capacity: " + mArray.length);
+        }
+        mLength = length;
+    }
+
+    /**
+     * 有效数据的ByteBuffer视图，每次调用返回新的视图，各持有者互不影响
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(mArray, 0, mLength);
+    }
+
+    /**
+     * 拷贝有效数据，返回的数组归调用者所有
+     */
+    public byte[] copy() {
+        return Arrays.copyOf(mArray, mLength);
+    }
+
+    public int refCnt() {
+        return mRefCnt.get();
+    }
+
+    /**
+     * 引用计数加1
+     *
+     * @return this
+     */
+    public PooledBuffer retain() {
+        while (true) {
+            int refCnt = mRefCnt.get();
+            if (refCnt <= 0) {
+                throw new IllegalStateException("PooledBuffer already released");
+            }
+            if (mRefCnt.compareAndSet(refCnt, refCnt + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * 引用计数减1，归零时归还缓存池
+     *
+     * @return true 已归还
+     */
+    public boolean release() {
+        int refCnt = mRefCnt.decrementAndGet();
+        if (refCnt < 0) {
+            mRefCnt.incrementAndGet();
+            throw new IllegalStateException("PooledBuffer already released");
+        }
+        if (refCnt == 0) {
+            if (mPool != null) {
+                mPool.recycle(this);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 从缓存池取出时重置
+     */
+    void reset() {
+        mRefCnt.set(1);
+        mLength = 0;
+    }
+}
@@ -1,6 +1,8 @@
 package com.jochen.bluetoothmanager.utils;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 文件名：ProtocolUtils
@@ -9,6 +11,20 @@ import java.io.UnsupportedEncodingException;
  * 创建时间：2019/7/30
  */
 public class ProtocolUtils {
+    // 16进制字符表
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    // 字符对应的16进制数值，非16进制字符为-1
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[HEX_LOWER[i]] = (byte) i;
+            HEX_VALUES[HEX_UPPER[i]] = (byte) i;
+        }
+    }
+
     /**
      * Bytes数组转化为ASCII码String
      *
@@ -63,54 +79,185 @@ public class ProtocolUtils {
      * @return 转换后的字符串
      */
     public static String bytesToHexStr(byte[] bytes, boolean isCaptial) {
-        if (null == bytes || bytes.length <= 0) {
+        if (null == bytes) {
             return null;
         }
-        StringBuilder s = new StringBuilder();
-        for (int i = 0; i < bytes.length; i++) {
-            if (isCaptial) {
-                s.append(String.format("%02X", bytes[i]));
-            } else {
-                s.append(String.format("%02x", bytes[i]));
-            }
+        return bytesToHexStr(bytes, 0, bytes.length, isCaptial);
+    }
+
+    /**
+     * byte数组指定范围转成字符串
+     *
+     * @param bytes     数组
+     * @param offset    起始索引
+     * @param length    长度
+     * @param isCaptial 使用大写还是小写表示
+     * @return 转换后的字符串
+     */
+    public static String bytesToHexStr(byte[] bytes, int offset, int length, boolean isCaptial) {
+        if (null == bytes || length <= 0) {
+            return null;
         }
-        return s.toString();
+        char[] chars = new char[length * 2];
+        encodeHex(bytes, offset, length, chars, 0, isCaptial);
+        return new String(chars);
     }
 
     /**
-     * 字符串转byte数组，输入前需要确认是16进制形式
+     * byte数组指定范围编码为16进制字符，写入chars
      *
-     * @param hex 16进制字符串
+     * @param bytes       数组
+     * @param offset      起始索引
+     * @param length      长度
+     * @param chars       输出，需要length * 2的空间
+     * @param charsOffset 输出起始索引
+     * @param isCaptial   使用大写还是小写表示
+     * @return 写入的字符数
+     */
+    public static int encodeHex(byte[] bytes, int offset, int length, char[] chars, int charsOffset, boolean isCaptial) {
+        char[] table = isCaptial ? HEX_UPPER : HEX_LOWER;
+        int j = charsOffset;
+        for (int i = offset; i < offset + length; i++) {
+            int b = bytes[i] & 0xFF;
+            chars[j++] = table[b >>> 4];
+            chars[j++] = table[b & 0x0F];
+        }
+        return j - charsOffset;
+    }
+
+    /**
+     * byte数组指定范围编码为16进制字符，追加到StringBuilder
+     * 拼接日志时直接追加，不产生中间字符串
+     *
+     * @param builder   StringBuilder
+     * @param bytes     数组
+     * @param offset    起始索引
+     * @param length    长度
+     * @param isCaptial 使用大写还是小写表示
+     * @return builder
+     */
+    public static StringBuilder appendHex(StringBuilder builder, byte[] bytes, int offset, int length, boolean isCaptial) {
+        char[] table = isCaptial ? HEX_UPPER : HEX_LOWER;
+        builder.ensureCapacity(builder.length() + length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            int b = bytes[i] & 0xFF;
+            builder.append(table[b >>> 4]).append(table[b & 0x0F]);
+        }
+        return builder;
+    }
+
+    /**
+     * ByteBuffer中[position, limit)的数据编码为小写16进制字符，追加到StringBuilder，不改变position
+     *
+     * @param builder StringBuilder
+     * @param buffer  ByteBuffer
+     * @return builder
+     */
+    public static StringBuilder appendHex(StringBuilder builder, ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return appendHex(builder, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), false);
+        }
+        builder.ensureCapacity(builder.length() + buffer.remaining() * 2);
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            int b = buffer.get(i) & 0xFF;
+            builder.append(HEX_LOWER[b >>> 4]).append(HEX_LOWER[b & 0x0F]);
+        }
+        return builder;
+    }
+
+    /**
+     * ByteBuffer中[position, limit)的数据转成小写字符串，不改变position
+     *
+     * @param buffer ByteBuffer
+     * @return 转换后的字符串
+     */
+    public static String bytesToHexStr(ByteBuffer buffer) {
+        if (null == buffer || !buffer.hasRemaining()) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            return bytesToHexStr(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), false);
+        }
+        return appendHex(new StringBuilder(buffer.remaining() * 2), buffer).toString();
+    }
+
+    /**
+     * ByteBuffer中[position, limit)的数据拷贝为byte数组，不改变position
+     * 始终拷贝，即使ByteBuffer正好是完整数组的视图，返回的数组与buffer不共用数据
+     *
+     * @param buffer ByteBuffer
      * @return byte数组
      */
+    public static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 字符串转byte数组
+     * 长度为奇数时在前面补'0'
+     *
+     * @param hex 16进制字符串，大小写均可
+     * @return byte数组，包含非16进制字符时返回null
+     */
     public static byte[] hexStrToBytes(String hex) {
         if (null == hex || hex.equals("")) {
             return null;
         }
         int strLength = hex.length();
-        int length = strLength / 2;
-        char[] hexChars;
-        if (length * 2 < strLength) { // strLength is odd, add '0'
-            length += 1;
-            hexChars = ("0" + hex).toCharArray();
-        } else {
-            hexChars = hex.toCharArray();
-        }
-        byte[] bytes = new byte[length];
-        for (int i = 0; i < length; i++) {
-            int pos = i * 2;
-            bytes[i] = (byte) (charToByte(hexChars[pos]) << 4 | charToByte(hexChars[pos + 1]));
+        byte[] bytes = new byte[(strLength + 1) / 2];
+        try {
+            decodeHex(hex, 0, strLength, bytes, 0);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
         return bytes;
     }
 
-    public static byte charToByte(char c) {
-        byte result = (byte) "0123456789abcdef".indexOf(c);
-        if (result == -1) {
-            return (byte) "0123456789ABCDEF".indexOf(c);
-        } else {
-            return result;
+    /**
+     * 16进制字符解码，写入bytes
+     * 字符数为奇数时视为在前面补'0'
+     *
+     * @param hex         16进制字符
+     * @param start       起始索引
+     * @param end         结束索引（不包含）
+     * @param bytes       输出，需要(end - start + 1) / 2的空间
+     * @param bytesOffset 输出起始索引
+     * @return 写入的字节数
+     * @throws IllegalArgumentException 包含非16进制字符
+     */
+    public static int decodeHex(CharSequence hex, int start, int end, byte[] bytes, int bytesOffset) {
+        int i = start;
+        int j = bytesOffset;
+        if (((end - start) & 1) != 0) {
+            bytes[j++] = (byte) hexValue(hex, i++);
+        }
+        while (i < end) {
+            int high = hexValue(hex, i++);
+            int low = hexValue(hex, i++);
+            bytes[j++] = (byte) (high << 4 | low);
+        }
+        return j - bytesOffset;
+    }
+
+    private static int hexValue(CharSequence hex, int index) {
+        char c = hex.charAt(index);
+        int value = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("invalid hex char '" + c + "' at " + index);
         }
+        return value;
+    }
+
+    /**
+     * 16进制字符转数值
+     *
+     * @param c 16进制字符，大小写均可
+     * @return 0 ~ 15，非16进制字符返回-1
+     */
+    public static byte charToByte(char c) {
+        return c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
     }
 
     /**
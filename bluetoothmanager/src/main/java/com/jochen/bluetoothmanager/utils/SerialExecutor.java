@@ -0,0 +1,168 @@
+package com.jochen.bluetoothmanager.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文件名：SerialExecutor
+ * 描述：串行执行器
+ * 任务按提交顺序在目标Executor中逐个执行，同一时刻最多一个任务在执行，
+ * 目标Executor可以是线程池、主线程Handler等；每轮最多连续执行MAX_BATCH个任务后重新提交，避免长时间占用目标线程
+ * 同时统计排队深度及任务从提交到开始执行的等待时间
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class SerialExecutor implements Executor {
+    private static final int MAX_BATCH = 64;
+
+    private final Executor mExecutor;
+    private final ConcurrentLinkedQueue<Task> mTasks = new ConcurrentLinkedQueue<>();
+    // 已提交未执行完成的任务数，等待previous期间额外占住1
+    private final AtomicInteger mDepth = new AtomicInteger();
+    // 是否在等待previous执行完
+    private volatile boolean mHeld;
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    // 统计数据，只在执行任务的线程中写入
+    private volatile int mMaxDepth;
+    private volatile long mTaskCount;
+    private volatile long mTotalLatencyNanos;
+    private volatile long mMaxLatencyNanos;
+
+    public SerialExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * 接在previous之后执行
+     * previous中已提交的任务全部执行完之前，提交到本执行器的任务只排队不执行，用于切换执行线程时保持顺序
+     *
+     * @param executor 目标Executor
+     * @param previous 之前的串行执行器，null则不等待
+     */
+    public SerialExecutor(Executor executor, SerialExecutor previous) {
+        mExecutor = executor;
+        if (previous != null) {
+            // 占住一个计数，execute不会提交drain，previous执行到该任务时释放
+            mHeld = true;
+            mDepth.set(1);
+            previous.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mHeld = false;
+                    if (mDepth.decrementAndGet() > 0) {
+                        submit();
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        mTasks.offer(new Task(command));
+        int depth = mDepth.incrementAndGet();
+        if (depth == 1) {
+            submit();
+        }
+        int queued = mHeld ? depth - 1 : depth;
+        if (queued > mMaxDepth) {
+            mMaxDepth = queued;
+        }
+    }
+
+    /**
+     * 当前排队（含正在执行）的任务数
+     */
+    public int getQueueDepth() {
+        int depth = mDepth.get();
+        return mHeld ? Math.max(0, depth - 1) : depth;
+    }
+
+    /**
+     * 统计期间最大排队任务数
+     */
+    public int getMaxQueueDepth() {
+        return mMaxDepth;
+    }
+
+    /**
+     * 统计期间已执行的任务数
+     */
+    public long getTaskCount() {
+        return mTaskCount;
+    }
+
+    /**
+     * 任务从提交到开始执行的平均等待时间（纳秒）
+     */
+    public long getAverageLatencyNanos() {
+        long count = mTaskCount;
+        return count == 0 ? 0 : mTotalLatencyNanos / count;
+    }
+
+    /**
+     * 任务从提交到开始执行的最大等待时间（纳秒）
+     */
+    public long getMaxLatencyNanos() {
+        return mMaxLatencyNanos;
+    }
+
+    /**
+     * 重置统计数据
+     */
+    public void resetStats() {
+        mMaxDepth = getQueueDepth();
+        mTaskCount = 0;
+        mTotalLatencyNanos = 0;
+        mMaxLatencyNanos = 0;
+    }
+
+    private void submit() {
+        try {
+            mExecutor.execute(mDrain);
+        } catch (RejectedExecutionException e) {
+            // 目标Executor已关闭，在当前线程执行剩余任务，保证已提交的数据都被处理
+            LogUtils.w(LogUtils.CATEGORY_DATA, "SerialExecutor rejected, drain in current thread");
+            drain();
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < MAX_BATCH; i++) {
+            // mDepth大于0时队列中一定有任务
+            Task task = mTasks.poll();
+            long latency = System.nanoTime() - task.submitNanos;
+            mTaskCount++;
+            mTotalLatencyNanos += latency;
+            if (latency > mMaxLatencyNanos) {
+                mMaxLatencyNanos = latency;
+            }
+            try {
+                task.command.run();
+            } catch (RuntimeException e) {
+                LogUtils.e(LogUtils.CATEGORY_DATA, "SerialExecutor task exception", e);
+            }
+            if (mDepth.decrementAndGet() == 0) {
+                return;
+            }
+        }
+        submit();
+    }
+
+    private static class Task {
+        final Runnable command;
+        final long submitNanos = System.nanoTime();
+
+        Task(Runnable command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.jochen.bluetoothmanager.utils;
+
+/**
+ * 文件名：TimerUtils
+ * 描述：BluetoothManager内部共用的定时器
+ * 所有超时、延时任务共用一个时间轮线程，避免每个设备、每个管理类各自创建线程
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class TimerUtils {
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer("BluetoothManager-Timer");
+
+    /**
+     * 延时执行任务
+     * 任务在定时器线程中执行，请勿在任务中执行耗时操作；精度为HashedWheelTimer.DEFAULT_TICK_DURATION
+     *
+     * @param task  待执行任务
+     * @param delay 延时（毫秒）
+     * @return Timeout，可用于取消
+     */
+    public static HashedWheelTimer.Timeout schedule(Runnable task, long delay) {
+        return TIMER.schedule(task, delay);
+    }
+
+    /**
+     * 未执行且未取消的任务数
+     */
+    public static int getPendingCount() {
+        return TIMER.getPendingCount();
+    }
+}
@@ -0,0 +1,224 @@
+package com.jochen.bluetoothmanager.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 文件名：TrafficCapture
+ * 描述：收发数据抓包
+ * 数据以pcap格式（纳秒时间戳，LINKTYPE_USER0）写入内存映射文件，可直接用Wireshark打开
+ * 文件分为segmentCount个分段循环写入（prefix-0.pcap ~ prefix-N.pcap），写满后覆盖最早的分段，
+ * 每个分段都是完整的pcap文件；写入只是内存拷贝，不产生对象，可以在正式版本中长期开启
+ *
+ * 每条记录的数据前有8字节伪头部：
+ * [0]    方向 0:发送 1:接收
+ * [1]    链路 0:BLE 1:SPP
+ * [2..7] 设备地址
+ *
+ * 多个设备可以共用同一个TrafficCapture：device.setTrafficCapture(capture);
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class TrafficCapture {
+    public static final int DIRECTION_SENT     = 0; // 发送
+    public static final int DIRECTION_RECEIVED = 1; // 接收
+
+    // 默认分段大小
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    // 默认分段数
+    public static final int DEFAULT_SEGMENT_COUNT = 4;
+    // 默认每条记录最多保存的数据长度
+    public static final int DEFAULT_SNAP_LENGTH = 4096;
+
+    private static final int PCAP_MAGIC_NANOSECOND = 0xA1B23C4D;
+    private static final int LINKTYPE_USER0 = 147;
+    private static final int GLOBAL_HEADER_SIZE = 24;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int PSEUDO_HEADER_SIZE = 8;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final File mDirectory;
+    private final String mPrefix;
+    private final int mSegmentSize;
+    private final int mSegmentCount;
+    private final int mSnapLength;
+    // 墙上时间与单调时钟的基准，时间戳 = mBaseWallNanos + (System.nanoTime() - mBaseNanoTime)
+    private final long mBaseWallNanos;
+    private final long mBaseNanoTime;
+
+    private int mSegmentIndex;
+    private RandomAccessFile mFile;
+    private MappedByteBuffer mBuffer;
+    private boolean mClosed;
+    private long mRecordCount;
+
+    public TrafficCapture(File directory, String prefix) throws IOException {
+        this(directory, prefix, DEFAULT_SEGMENT_SIZE, DEFAULT_SEGMENT_COUNT, DEFAULT_SNAP_LENGTH);
+    }
+
+    /**
+     * @param directory    保存目录
+     * @param prefix       文件名前缀
+     * @param segmentSize  分段大小
+     * @param segmentCount 分段数
+     * @param snapLength   每条记录最多保存的数据长度，超出部分截断
+     */
+    public TrafficCapture(File directory, String prefix, int segmentSize, int segmentCount, int snapLength) throws IOException {
+        mDirectory = directory;
+        mPrefix = prefix;
+        mSegmentSize = Math.max(segmentSize, GLOBAL_HEADER_SIZE + RECORD_HEADER_SIZE + PSEUDO_HEADER_SIZE + 1);
+        mSegmentCount = Math.max(1, segmentCount);
+        mSnapLength = Math.max(1, Math.min(snapLength, mSegmentSize - GLOBAL_HEADER_SIZE - RECORD_HEADER_SIZE - PSEUDO_HEADER_SIZE));
+        mBaseWallNanos = System.currentTimeMillis() * 1000000L;
+        mBaseNanoTime = System.nanoTime();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("mkdirs failed: " + directory);
+        }
+        openSegment(0);
+    }
+
+    /**
+     * 记录一条数据
+     *
+     * @param direction DIRECTION_SENT 或 DIRECTION_RECEIVED
+     * @param isBLE     是否为BLE链路
+     * @param address   6字节设备地址
+     * @param data      数据[position, limit)，不改变position
+     */
+    public void record(int direction, boolean isBLE, byte[] address, ByteBuffer data) {
+        if (data.hasArray()) {
+            record(direction, isBLE, address, data.array(), data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        synchronized (this) {
+            int length = data.remaining();
+            if (!prepare(direction, isBLE, address, length)) {
+                return;
+            }
+            // 整块拷贝，duplicate不改变调用者的position、limit
+            ByteBuffer src = data.duplicate();
+            src.limit(src.position() + Math.min(length, mSnapLength));
+            mBuffer.put(src);
+        }
+    }
+
+    /**
+     * 记录一条数据
+     *
+     * @param direction DIRECTION_SENT 或 DIRECTION_RECEIVED
+     * @param isBLE     是否为BLE链路
+     * @param address   6字节设备地址
+     * @param data      数组
+     * @param offset    起始索引
+     * @param length    长度
+     */
+    public synchronized void record(int direction, boolean isBLE, byte[] address, byte[] data, int offset, int length) {
+        if (!prepare(direction, isBLE, address, length)) {
+            return;
+        }
+        mBuffer.put(data, offset, Math.min(length, mSnapLength));
+    }
+
+    /**
+     * 已记录的条数
+     */
+    public synchronized long getRecordCount() {
+        return mRecordCount;
+    }
+
+    /**
+     * 将映射内存写入文件
+     */
+    public synchronized void flush() {
+        if (!mClosed) {
+            mBuffer.force();
+        }
+    }
+
+    /**
+     * 结束抓包，当前分段截断到实际长度
+     */
+    public synchronized void close() {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+        finishSegment();
+    }
+
+    /**
+     * 写入记录头及伪头部，需持有锁
+     *
+     * @return false 抓包已关闭
+     */
+    private boolean prepare(int direction, boolean isBLE, byte[] address, int length) {
+        if (mClosed) {
+            return false;
+        }
+        int captured = Math.min(length, mSnapLength);
+        int recordSize = RECORD_HEADER_SIZE + PSEUDO_HEADER_SIZE + captured;
+        if (mBuffer.remaining() < recordSize && !rotate()) {
+            return false;
+        }
+        long timestamp = mBaseWallNanos + (System.nanoTime() - mBaseNanoTime);
+        mBuffer.putInt((int) (timestamp / NANOS_PER_SECOND));
+        mBuffer.putInt((int) (timestamp % NANOS_PER_SECOND));
+        mBuffer.putInt(PSEUDO_HEADER_SIZE + captured);
+        mBuffer.putInt(PSEUDO_HEADER_SIZE + length);
+        mBuffer.put((byte) direction);
+        mBuffer.put((byte) (isBLE ? 0 : 1));
+        mBuffer.put(address, 0, 6);
+        mRecordCount++;
+        return true;
+    }
+
+    /**
+     * 切换到下一个分段，需持有锁
+     */
+    private boolean rotate() {
+        finishSegment();
+        try {
+            openSegment((mSegmentIndex + 1) % mSegmentCount);
+            return true;
+        } catch (IOException e) {
+            LogUtils.e(LogUtils.CATEGORY_DATA, "抓包文件切换失败，停止抓包", e);
+            mClosed = true;
+            return false;
+        }
+    }
+
+    private void openSegment(int index) throws IOException {
+        mSegmentIndex = index;
+        File file = new File(mDirectory, mPrefix + "-" + index + ".pcap");
+        mFile = new RandomAccessFile(file, "rw");
+        mFile.setLength(0);
+        mBuffer = mFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, mSegmentSize);
+        mBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        // pcap文件头
+        mBuffer.putInt(PCAP_MAGIC_NANOSECOND);
+        mBuffer.putShort((short) 2);
+        mBuffer.putShort((short) 4);
+        mBuffer.putInt(0);
+        mBuffer.putInt(0);
+        mBuffer.putInt(mSnapLength + PSEUDO_HEADER_SIZE);
+        mBuffer.putInt(LINKTYPE_USER0);
+    }
+
+    /**
+     * 写入并截断当前分段，去掉未使用的映射空间
+     */
+    private void finishSegment() {
+        try {
+            mBuffer.force();
+            mFile.getChannel().truncate(mBuffer.position());
+            mFile.close();
+        } catch (IOException e) {
+            LogUtils.e(LogUtils.CATEGORY_DATA, "抓包文件关闭失败", e);
+        }
+    }
+}
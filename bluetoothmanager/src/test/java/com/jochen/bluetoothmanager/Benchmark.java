@@ -0,0 +1,11 @@
+package com.jochen.bluetoothmanager;
+
+/**
+ * 文件名：Benchmark
+ * 描述：耗时对比测试的JUnit Category
+ * 标记的测试默认不在单元测试中运行，gradlew test -Pbenchmark 时运行
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public interface Benchmark {
+}
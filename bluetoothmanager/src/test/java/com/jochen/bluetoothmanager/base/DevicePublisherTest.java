@@ -0,0 +1,138 @@
+package com.jochen.bluetoothmanager.base;
+
+import com.jochen.bluetoothmanager.function.OverflowPolicy;
+
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：DevicePublisherTest
+ * 描述：DevicePublisher测试
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class DevicePublisherTest {
+
+    private static class Recorder implements Subscriber<Integer> {
+        final List<Integer> items = new ArrayList<>();
+        Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public synchronized void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        synchronized List<Integer> snapshot() {
+            return new ArrayList<>(items);
+        }
+    }
+
+    private static class CountingPublisher extends DevicePublisher<Integer> {
+        int active;
+        int inactive;
+
+        CountingPublisher(boolean replayLatest) {
+            super(16, OverflowPolicy.DROP_OLDEST, replayLatest);
+        }
+
+        @Override
+        protected void onActive() {
+            active++;
+        }
+
+        @Override
+        protected void onInactive() {
+            inactive++;
+        }
+    }
+
+    @Test
+    public void activeInactive() {
+        CountingPublisher publisher = new CountingPublisher(false);
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        assertEquals(1, publisher.active);
+        first.subscription.cancel();
+        assertEquals(0, publisher.inactive);
+        second.subscription.cancel();
+        assertEquals(1, publisher.inactive);
+        assertFalse(publisher.hasSubscribers());
+        publisher.subscribe(new Recorder());
+        assertEquals(2, publisher.active);
+    }
+
+    @Test
+    public void replayLatest() {
+        DevicePublisher<Integer> publisher = new DevicePublisher<>(16, OverflowPolicy.DROP_OLDEST, true);
+        publisher.publish(1);
+        publisher.publish(2);
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        publisher.publish(3);
+        assertEquals(2, (int) recorder.items.get(0));
+        assertEquals(3, (int) recorder.items.get(1));
+        assertEquals(2, recorder.items.size());
+    }
+
+    @Test
+    public void replayRacingPublish() throws Exception {
+        final DevicePublisher<Integer> publisher = new DevicePublisher<>(100000, OverflowPolicy.DROP_OLDEST, true);
+        publisher.publish(0);
+        final int count = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 1; i <= count; i++) {
+                    publisher.publish(i);
+                }
+            }
+        });
+        producer.start();
+        List<Recorder> recorders = new ArrayList<>();
+        start.countDown();
+        for (int i = 0; i < 200; i++) {
+            Recorder recorder = new Recorder();
+            publisher.subscribe(recorder);
+            recorders.add(recorder);
+        }
+        producer.join();
+        // 每个Subscriber收到的数据严格递增且连续到最后一个，重放的数据不会重复或乱序
+        for (Recorder recorder : recorders) {
+            List<Integer> items = recorder.snapshot();
+            assertFalse(items.isEmpty());
+            for (int i = 1; i < items.size(); i++) {
+                assertEquals(items.get(i - 1) + 1, (int) items.get(i));
+            }
+            assertEquals(count, (int) items.get(items.size() - 1));
+        }
+    }
+}
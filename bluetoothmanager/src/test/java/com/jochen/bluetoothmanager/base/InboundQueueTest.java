@@ -0,0 +1,133 @@
+package com.jochen.bluetoothmanager.base;
+
+import com.jochen.bluetoothmanager.function.OverflowPolicy;
+import com.jochen.bluetoothmanager.utils.SerialExecutor;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：InboundQueueTest
+ * 描述：InboundQueue测试
+ * 分发执行器为手动执行的Executor，可以观察提交到目标线程的任务数
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class InboundQueueTest {
+    // 超过分发任务及SerialExecutor每轮的处理上限
+    private static final int COUNT = 10000;
+
+    /**
+     * 手动执行提交的任务
+     */
+    private static class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static class Recorder {
+        final List<Integer> delivered = new ArrayList<>();
+        final List<Integer> discarded = new ArrayList<>();
+
+        InboundQueue.Item item(final int value) {
+            return new InboundQueue.Item() {
+                @Override
+                public void deliver() {
+                    delivered.add(value);
+                }
+
+                @Override
+                public void discard() {
+                    discarded.add(value);
+                }
+            };
+        }
+    }
+
+    @Test
+    public void dropOldestKeepsSingleDrainTask() {
+        ManualExecutor executor = new ManualExecutor();
+        SerialExecutor dispatcher = new SerialExecutor(executor);
+        InboundQueue queue = new InboundQueue(4, OverflowPolicy.DROP_OLDEST, 1);
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < 10000; i++) {
+            queue.offer(dispatcher, recorder.item(i));
+        }
+        // 分发线程未执行期间只有一个分发任务
+        assertEquals(1, executor.tasks.size());
+        assertEquals(4, queue.size());
+        assertEquals(9996, queue.getDroppedCount());
+        executor.runAll();
+        assertEquals(0, queue.size());
+        assertEquals(9996, recorder.discarded.size());
+        assertEquals(4, recorder.delivered.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(9996 + i, (int) recorder.delivered.get(i));
+        }
+
+        // 队列为空后再次入队重新提交分发任务
+        queue.offer(dispatcher, recorder.item(-1));
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(-1, (int) recorder.delivered.get(4));
+    }
+
+    @Test
+    public void drainYieldsAndKeepsOrder() {
+        ManualExecutor executor = new ManualExecutor();
+        SerialExecutor dispatcher = new SerialExecutor(executor);
+        InboundQueue queue = new InboundQueue(COUNT, OverflowPolicy.DROP_NEWEST, 1);
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < COUNT; i++) {
+            queue.offer(dispatcher, recorder.item(i));
+        }
+        // 每轮分发有限个数据后重新提交
+        executor.tasks.poll().run();
+        assertTrue(recorder.delivered.size() < COUNT);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(COUNT, recorder.delivered.size());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i, (int) recorder.delivered.get(i));
+        }
+    }
+
+    @Test
+    public void deliverExceptionDoesNotStall() {
+        ManualExecutor executor = new ManualExecutor();
+        SerialExecutor dispatcher = new SerialExecutor(executor);
+        InboundQueue queue = new InboundQueue(10, OverflowPolicy.DROP_NEWEST, 1);
+        Recorder recorder = new Recorder();
+        queue.offer(dispatcher, new InboundQueue.Item() {
+            @Override
+            public void deliver() {
+                throw new RuntimeException("test");
+            }
+
+            @Override
+            public void discard() {
+            }
+        });
+        queue.offer(dispatcher, recorder.item(1));
+        executor.runAll();
+        assertEquals(1, recorder.delivered.size());
+        assertEquals(0, queue.size());
+    }
+}
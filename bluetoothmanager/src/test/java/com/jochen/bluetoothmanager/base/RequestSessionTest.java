@@ -0,0 +1,251 @@
+package com.jochen.bluetoothmanager.base;
+
+import com.jochen.bluetoothmanager.frame.FrameCallback;
+import com.jochen.bluetoothmanager.function.KeyExtractor;
+import com.jochen.bluetoothmanager.function.ResultCallback;
+import com.jochen.bluetoothmanager.function.ResultFuture;
+import com.jochen.bluetoothmanager.utils.LogUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：RequestSessionTest
+ * 描述：RequestSession测试
+ * 帧格式：[1字节序号][数据]，序号为关联键，0xFF表示设备主动上报
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class RequestSessionTest {
+    private static final KeyExtractor<Integer> SEQ = new KeyExtractor<Integer>() {
+        @Override
+        public Integer getKey(ByteBuffer frame) {
+            if (!frame.hasRemaining()) {
+                return null;
+            }
+            int seq = frame.get(frame.position()) & 0xFF;
+            return seq == 0xFF ? null : seq;
+        }
+    };
+
+    /**
+     * 记录写入的数据，由测试决定写入结果
+     */
+    private static class FakeDevice extends BaseDevice {
+        final List<byte[]> written = new ArrayList<>();
+        final List<ResultFuture<Integer>> writes = new ArrayList<>();
+
+        FakeDevice() {
+            super(true, null, null);
+        }
+
+        @Override
+        public boolean connect() {
+            return false;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public ResultFuture<Integer> writeAsync(ByteBuffer data, int priority) {
+            byte[] bytes = new byte[data.remaining()];
+            data.duplicate().get(bytes);
+            written.add(bytes);
+            ResultFuture<Integer> future = new ResultFuture<>();
+            writes.add(future);
+            return future;
+        }
+    }
+
+    private static class Collector implements FrameCallback {
+        final List<byte[]> frames = new ArrayList<>();
+
+        @Override
+        public void onFrame(ByteBuffer frame) {
+            byte[] data = new byte[frame.remaining()];
+            frame.duplicate().get(data);
+            frames.add(data);
+        }
+    }
+
+    private FakeDevice mDevice;
+    private RequestSession<Integer> mSession;
+    private Collector mUnmatched;
+    private int mDataLevel;
+
+    @Before
+    public void setUp() {
+        mDataLevel = LogUtils.getLevel(LogUtils.CATEGORY_DATA);
+        LogUtils.setLevel(LogUtils.CATEGORY_DATA, LogUtils.LEVEL_OFF);
+        mDevice = new FakeDevice();
+        mUnmatched = new Collector();
+        mSession = new RequestSession<>(mDevice, SEQ).setUnmatchedCallback(mUnmatched);
+    }
+
+    @After
+    public void tearDown() {
+        LogUtils.setLevel(LogUtils.CATEGORY_DATA, mDataLevel);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] data = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (byte) values[i];
+        }
+        return data;
+    }
+
+    /**
+     * 等待失败结果，回调在RequestSession的回调之后执行，此时已移出等待表
+     */
+    private static Throwable failure(ResultFuture<byte[]> future) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        future.addCallback(new ResultCallback<byte[]>() {
+            @Override
+            public void onComplete(ResultFuture<byte[]> future) {
+                latch.countDown();
+            }
+        });
+        assertTrue("future not completed", latch.await(1, TimeUnit.SECONDS));
+        assertTrue("future succeeded", future.isFailed());
+        return future.getCause();
+    }
+
+    @Test
+    public void responseCompletesRequest() throws Exception {
+        ResultFuture<byte[]> future = mSession.request(1, bytes(1, 0x10));
+        assertEquals(1, mSession.getPendingCount());
+        assertArrayEquals(bytes(1, 0x10), mDevice.written.get(0));
+        mDevice.writes.get(0).setResult(2);
+        assertFalse(future.isDone());
+
+        ByteBuffer frame = ByteBuffer.wrap(bytes(0xAA, 1, 0x20, 0x21), 1, 3);
+        mSession.onFrame(frame);
+        assertTrue(future.isSuccess());
+        assertArrayEquals(bytes(1, 0x20, 0x21), future.getNow());
+        // 不改变帧的position，响应数据为拷贝
+        assertEquals(1, frame.position());
+        frame.put(1, (byte) 0);
+        assertArrayEquals(bytes(1, 0x20, 0x21), future.getNow());
+        assertEquals(0, mSession.getPendingCount());
+        assertTrue(mUnmatched.frames.isEmpty());
+    }
+
+    @Test
+    public void requestCopiesArray() {
+        byte[] data = bytes(2, 0x10);
+        mSession.request(2, data);
+        data[1] = 0;
+        assertArrayEquals(bytes(2, 0x10), mDevice.written.get(0));
+    }
+
+    @Test
+    public void concurrentRequestsOutOfOrder() {
+        ResultFuture<byte[]> first = mSession.request(1, bytes(1));
+        ResultFuture<byte[]> second = mSession.request(2, bytes(2));
+        ResultFuture<byte[]> third = mSession.request(3, bytes(3));
+        assertEquals(3, mSession.getPendingCount());
+        mSession.onReceive(ByteBuffer.wrap(bytes(3, 0x33)));
+        mSession.onReceive(ByteBuffer.wrap(bytes(1, 0x11)));
+        assertTrue(third.isSuccess());
+        assertTrue(first.isSuccess());
+        assertFalse(second.isDone());
+        assertArrayEquals(bytes(1, 0x11), first.getNow());
+        assertArrayEquals(bytes(3, 0x33), third.getNow());
+        assertEquals(1, mSession.getPendingCount());
+    }
+
+    @Test
+    public void duplicateKeyRejected() throws Exception {
+        ResultFuture<byte[]> first = mSession.request(1, bytes(1));
+        ResultFuture<byte[]> duplicate = mSession.request(1, bytes(1));
+        assertTrue(failure(duplicate) instanceof IllegalStateException);
+        // 重复的请求不发送，原请求不受影响
+        assertEquals(1, mDevice.written.size());
+        assertFalse(first.isDone());
+        mSession.onFrame(ByteBuffer.wrap(bytes(1)));
+        assertTrue(first.isSuccess());
+        // 完成后可以再次使用该关联键
+        mSession.request(1, bytes(1));
+        assertEquals(1, mSession.getPendingCount());
+    }
+
+    @Test
+    public void writeFailureFailsRequest() throws Exception {
+        ResultFuture<byte[]> future = mSession.request(1, bytes(1));
+        IOException cause = new IOException("write failed");
+        mDevice.writes.get(0).setFailure(cause);
+        assertSame(cause, failure(future));
+        assertEquals(0, mSession.getPendingCount());
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        ResultFuture<byte[]> future = mSession.request(1, ByteBuffer.wrap(bytes(1)), 50);
+        assertTrue(failure(future) instanceof TimeoutException);
+        assertEquals(0, mSession.getPendingCount());
+        // 超时后到达的响应作为未匹配的帧
+        mSession.onFrame(ByteBuffer.wrap(bytes(1, 0x10)));
+        assertEquals(1, mUnmatched.frames.size());
+    }
+
+    @Test
+    public void responseBeforeTimeout() throws Exception {
+        ResultFuture<byte[]> future = mSession.request(1, ByteBuffer.wrap(bytes(1)), 100);
+        mSession.onFrame(ByteBuffer.wrap(bytes(1)));
+        assertTrue(future.isSuccess());
+        // 超时任务已取消，不会再改变结果
+        Thread.sleep(200);
+        assertTrue(future.isSuccess());
+    }
+
+    @Test
+    public void cancelRemovesPending() {
+        ResultFuture<byte[]> future = mSession.request(1, bytes(1));
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertEquals(0, mSession.getPendingCount());
+        mSession.onFrame(ByteBuffer.wrap(bytes(1)));
+        assertEquals(1, mUnmatched.frames.size());
+    }
+
+    @Test
+    public void cancelAll() throws Exception {
+        ResultFuture<byte[]> first = mSession.request(1, bytes(1));
+        ResultFuture<byte[]> second = mSession.request(2, bytes(2));
+        mSession.cancelAll();
+        assertTrue(failure(first) instanceof IOException);
+        assertTrue(failure(second) instanceof IOException);
+        assertEquals(0, mSession.getPendingCount());
+    }
+
+    @Test
+    public void unmatchedFrames() {
+        mSession.request(1, bytes(1));
+        mSession.onFrame(ByteBuffer.wrap(bytes(0xFF, 0x01)));
+        mSession.onFrame(ByteBuffer.wrap(bytes(2, 0x02)));
+        mSession.onFrame(ByteBuffer.allocate(0));
+        assertEquals(3, mUnmatched.frames.size());
+        assertArrayEquals(bytes(0xFF, 0x01), mUnmatched.frames.get(0));
+        assertArrayEquals(bytes(2, 0x02), mUnmatched.frames.get(1));
+        assertEquals(1, mSession.getPendingCount());
+
+        // 没有未匹配回调时丢弃
+        mSession.setUnmatchedCallback(null);
+        mSession.onFrame(ByteBuffer.wrap(bytes(2, 0x02)));
+        assertEquals(3, mUnmatched.frames.size());
+    }
+}
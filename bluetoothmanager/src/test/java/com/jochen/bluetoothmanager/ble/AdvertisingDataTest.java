@@ -0,0 +1,227 @@
+package com.jochen.bluetoothmanager.ble;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：AdvertisingDataTest
+ * 描述：AdvertisingData测试
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class AdvertisingDataTest {
+    private static final UUID UUID16 = UUID.fromString("0000180d-0000-1000-8000-00805f9b34fb");
+    private static final UUID UUID32 = UUID.fromString("89abcdef-0000-1000-8000-00805f9b34fb");
+    private static final UUID UUID128 = UUID.fromString("6e400001-b5a3-f393-e0a9-e50e24dcca9e");
+    // 与UUID16的16位值相同，但不是基础UUID
+    private static final UUID NOT_BASE = UUID.fromString("0000180d-0000-1000-8000-00805f9b34fc");
+
+    private static byte[] bytes(int... values) {
+        byte[] data = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (byte) values[i];
+        }
+        return data;
+    }
+
+    /**
+     * 生成AD结构
+     */
+    private static byte[] structure(int type, byte[] data) {
+        byte[] result = new byte[data.length + 2];
+        result[0] = (byte) (data.length + 1);
+        result[1] = (byte) type;
+        System.arraycopy(data, 0, result, 2, data.length);
+        return result;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 小端UUID
+     */
+    private static byte[] uuid128(UUID uuid) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        byte[] data = buffer.array();
+        for (int i = 0; i < 8; i++) {
+            byte b = data[i];
+            data[i] = data[15 - i];
+            data[15 - i] = b;
+        }
+        return data;
+    }
+
+    private static byte[] remaining(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return data;
+    }
+
+    @Test
+    public void parseFields() {
+        byte[] raw = concat(
+                structure(AdvertisingData.TYPE_FLAGS, bytes(0x06)),
+                structure(AdvertisingData.TYPE_TX_POWER_LEVEL, bytes(0xF4)),
+                structure(AdvertisingData.TYPE_NAME_SHORT, "HR".getBytes()),
+                structure(AdvertisingData.TYPE_NAME_COMPLETE, "HR Sensor".getBytes()),
+                structure(AdvertisingData.TYPE_MANUFACTURER_DATA, bytes(0x4C, 0x00, 0x02, 0x15)),
+                structure(AdvertisingData.TYPE_MANUFACTURER_DATA, bytes(0x59, 0x00, 0x01)));
+        AdvertisingData data = AdvertisingData.parse(raw);
+        assertEquals(6, data.getStructureCount());
+        assertSame(raw, data.getBytes());
+        assertTrue(data.contentEquals(raw.clone()));
+        assertEquals(0x06, data.getFlags());
+        assertEquals(-12, data.getTxPowerLevel());
+        assertEquals("HR Sensor", data.getLocalName());
+        assertEquals(0x004C, data.getManufacturerId());
+        assertArrayEquals(bytes(0x02, 0x15), remaining(data.getManufacturerData(0x004C)));
+        assertArrayEquals(bytes(0x01), remaining(data.getManufacturerData(0x0059)));
+        assertNull(data.getManufacturerData(0x1234));
+        assertEquals(AdvertisingData.TYPE_NAME_COMPLETE, data.getType(3));
+        assertEquals(9, data.getDataLength(3));
+        assertEquals(3, data.indexOf(AdvertisingData.TYPE_NAME_COMPLETE, 0));
+        assertEquals(5, data.indexOf(AdvertisingData.TYPE_MANUFACTURER_DATA, 5));
+        assertEquals(-1, data.indexOf(AdvertisingData.TYPE_FLAGS, 1));
+    }
+
+    @Test
+    public void emptyAndMissing() {
+        AdvertisingData data = AdvertisingData.parse(null);
+        assertEquals(0, data.getStructureCount());
+        assertEquals(AdvertisingData.FLAGS_UNKNOWN, data.getFlags());
+        assertEquals(AdvertisingData.TX_POWER_UNKNOWN, data.getTxPowerLevel());
+        assertNull(data.getLocalName());
+        assertTrue(data.getServiceUuids().isEmpty());
+        assertFalse(data.hasServiceUuid(UUID16));
+        assertNull(data.getServiceData(UUID16));
+        assertEquals(-1, data.getManufacturerId());
+
+        // 只有类型没有数据的结构
+        data = AdvertisingData.parse(bytes(1, AdvertisingData.TYPE_FLAGS, 1, AdvertisingData.TYPE_MANUFACTURER_DATA));
+        assertEquals(2, data.getStructureCount());
+        assertEquals(0, data.getDataLength(0));
+        assertEquals(AdvertisingData.FLAGS_UNKNOWN, data.getFlags());
+        assertEquals(-1, data.getManufacturerId());
+    }
+
+    @Test
+    public void zeroLengthPadding() {
+        byte[] raw = new byte[31];
+        byte[] name = structure(AdvertisingData.TYPE_NAME_COMPLETE, "abc".getBytes());
+        System.arraycopy(name, 0, raw, 0, name.length);
+        AdvertisingData data = AdvertisingData.parse(raw);
+        assertEquals(1, data.getStructureCount());
+        assertEquals("abc", data.getLocalName());
+
+        // 长度为0之后的数据视为填充，即使看起来像AD结构也不解析
+        raw = concat(structure(AdvertisingData.TYPE_FLAGS, bytes(0x06)), bytes(0),
+                structure(AdvertisingData.TYPE_NAME_COMPLETE, "abc".getBytes()));
+        data = AdvertisingData.parse(raw);
+        assertEquals(1, data.getStructureCount());
+        assertNull(data.getLocalName());
+    }
+
+    @Test
+    public void truncatedStructure() {
+        byte[] flags = structure(AdvertisingData.TYPE_FLAGS, bytes(0x06));
+        byte[] name = structure(AdvertisingData.TYPE_NAME_COMPLETE, "abcdef".getBytes());
+        // 最后一个结构缺少数据
+        byte[] raw = concat(flags, Arrays.copyOf(name, name.length - 2));
+        AdvertisingData data = AdvertisingData.parse(raw);
+        assertEquals(1, data.getStructureCount());
+        assertEquals(0x06, data.getFlags());
+        assertNull(data.getLocalName());
+        // 只有长度字节
+        data = AdvertisingData.parse(concat(flags, bytes(5)));
+        assertEquals(1, data.getStructureCount());
+        // 截断的UUID列表结构不解析
+        byte[] uuids = structure(AdvertisingData.TYPE_UUID16_COMPLETE, bytes(0x0D, 0x18, 0x0F, 0x18));
+        data = AdvertisingData.parse(Arrays.copyOf(uuids, uuids.length - 1));
+        assertEquals(0, data.getStructureCount());
+        assertFalse(data.hasServiceUuid(UUID16));
+    }
+
+    @Test
+    public void serviceUuids() {
+        byte[] raw = concat(
+                structure(AdvertisingData.TYPE_UUID16_INCOMPLETE, bytes(0x0D, 0x18, 0x0F, 0x18)),
+                structure(AdvertisingData.TYPE_UUID32_COMPLETE, bytes(0xEF, 0xCD, 0xAB, 0x89)),
+                structure(AdvertisingData.TYPE_UUID128_COMPLETE, uuid128(UUID128)));
+        AdvertisingData data = AdvertisingData.parse(raw);
+        List<UUID> uuids = data.getServiceUuids();
+        assertEquals(Arrays.asList(UUID16, UUID.fromString("0000180f-0000-1000-8000-00805f9b34fb"), UUID32, UUID128), uuids);
+        assertTrue(data.hasServiceUuid(UUID16));
+        assertTrue(data.hasServiceUuid(UUID32));
+        assertTrue(data.hasServiceUuid(UUID128));
+        assertFalse(data.hasServiceUuid(NOT_BASE));
+        assertFalse(data.hasServiceUuid(UUID.fromString("0000180e-0000-1000-8000-00805f9b34fb")));
+        // 16位UUID不能匹配到32位值的低16位
+        assertFalse(data.hasServiceUuid(UUID.fromString("0000cdef-0000-1000-8000-00805f9b34fb")));
+        for (UUID uuid : uuids) {
+            assertTrue(data.hasServiceUuid(uuid));
+        }
+        try {
+            uuids.add(UUID16);
+            fail("modifiable list");
+        } catch (UnsupportedOperationException e) {
+            // 只读
+        }
+    }
+
+    @Test
+    public void uuidListWithTrailingBytes() {
+        // 长度不是UUID大小的整数倍，多余的字节忽略
+        AdvertisingData data = AdvertisingData.parse(structure(AdvertisingData.TYPE_UUID16_COMPLETE, bytes(0x0D, 0x18, 0x0F)));
+        assertEquals(Arrays.asList(UUID16), data.getServiceUuids());
+        assertTrue(data.hasServiceUuid(UUID16));
+    }
+
+    @Test
+    public void serviceData() {
+        byte[] raw = concat(
+                structure(AdvertisingData.TYPE_SERVICE_DATA_UUID16, bytes(0x0D, 0x18, 0x01, 0x02)),
+                structure(AdvertisingData.TYPE_SERVICE_DATA_UUID32, bytes(0xEF, 0xCD, 0xAB, 0x89, 0x03)),
+                structure(AdvertisingData.TYPE_SERVICE_DATA_UUID128, concat(uuid128(UUID128), bytes(0x04, 0x05, 0x06))),
+                // UUID不完整的Service数据结构
+                structure(AdvertisingData.TYPE_SERVICE_DATA_UUID32, bytes(0x0F, 0x18)));
+        AdvertisingData data = AdvertisingData.parse(raw);
+        assertArrayEquals(bytes(0x01, 0x02), remaining(data.getServiceData(UUID16)));
+        assertArrayEquals(bytes(0x03), remaining(data.getServiceData(UUID32)));
+        assertArrayEquals(bytes(0x04, 0x05, 0x06), remaining(data.getServiceData(UUID128)));
+        assertNull(data.getServiceData(NOT_BASE));
+        assertNull(data.getServiceData(UUID.fromString("0000180f-0000-1000-8000-00805f9b34fb")));
+        // Service数据中的UUID不算广播的Service UUID
+        assertFalse(data.hasServiceUuid(UUID16));
+
+        ByteBuffer view = data.getServiceData(UUID128);
+        assertEquals(0, view.position());
+        try {
+            view.put(0, (byte) 0);
+            fail("writable view");
+        } catch (ReadOnlyBufferException e) {
+            // 只读
+        }
+    }
+
+    @Test
+    public void parseUuid() {
+        assertEquals(UUID16, AdvertisingData.parseUuid(bytes(0x0D, 0x18), 0, 2));
+        assertEquals(UUID32, AdvertisingData.parseUuid(bytes(0, 0xEF, 0xCD, 0xAB, 0x89), 1, 4));
+        assertEquals(UUID128, AdvertisingData.parseUuid(uuid128(UUID128), 0, 16));
+    }
+}
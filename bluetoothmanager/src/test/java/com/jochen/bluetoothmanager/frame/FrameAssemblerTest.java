@@ -0,0 +1,326 @@
+package com.jochen.bluetoothmanager.frame;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：FrameAssemblerTest
+ * 描述：FrameAssembler及各帧解码器测试
+ * 覆盖任意拆分、多帧合并、转义、COBS连续0x00及缓存超限
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class FrameAssemblerTest {
+
+    /**
+     * 拷贝收到的帧
+     */
+    private static class Collector implements FrameCallback {
+        final List<byte[]> frames = new ArrayList<>();
+
+        @Override
+        public void onFrame(ByteBuffer frame) {
+            byte[] data = new byte[frame.remaining()];
+            frame.get(data);
+            frames.add(data);
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] data = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (byte) values[i];
+        }
+        return data;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 逐字节输入
+     */
+    private static void feedBytewise(FrameAssembler assembler, byte[] data) {
+        for (int i = 0; i < data.length; i++) {
+            assembler.feed(data, i, 1);
+        }
+    }
+
+    /**
+     * 按不同长度拆分输入
+     */
+    private static void feedSplit(FrameAssembler assembler, byte[] data, int step) {
+        for (int i = 0; i < data.length; i += step) {
+            assembler.feed(data, i, Math.min(step, data.length - i));
+        }
+    }
+
+    private static byte[] slipEncode(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte b : data) {
+            if (b == SlipDecoder.END) {
+                out.write(SlipDecoder.ESC);
+                out.write(SlipDecoder.ESC_END);
+            } else if (b == SlipDecoder.ESC) {
+                out.write(SlipDecoder.ESC);
+                out.write(SlipDecoder.ESC_ESC);
+            } else {
+                out.write(b);
+            }
+        }
+        out.write(SlipDecoder.END);
+        return out.toByteArray();
+    }
+
+    private static byte[] cobsEncode(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        for (byte b : data) {
+            if (b == 0) {
+                out.write(block.size() + 1);
+                out.write(block.toByteArray(), 0, block.size());
+                block.reset();
+            } else {
+                block.write(b);
+                if (block.size() == 0xFE) {
+                    out.write(0xFF);
+                    out.write(block.toByteArray(), 0, block.size());
+                    block.reset();
+                }
+            }
+        }
+        out.write(block.size() + 1);
+        out.write(block.toByteArray(), 0, block.size());
+        out.write(0);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void lengthFieldSplitAndMerged() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new LengthFieldDecoder(0, 2, 0, 2, true), collector);
+        byte[] stream = concat(bytes(0, 3, 1, 2, 3), bytes(0, 0), bytes(0, 2, 4, 5));
+        feedBytewise(assembler, stream);
+        assertEquals(3, collector.frames.size());
+        assertArrayEquals(bytes(1, 2, 3), collector.frames.get(0));
+        assertArrayEquals(new byte[0], collector.frames.get(1));
+        assertArrayEquals(bytes(4, 5), collector.frames.get(2));
+        assertEquals(0, assembler.getPendingLength());
+
+        // 一次收到多帧及下一帧的一部分
+        collector.frames.clear();
+        assembler.feed(concat(stream, bytes(0, 4, 9)), 0, stream.length + 3);
+        assertEquals(3, collector.frames.size());
+        assertEquals(3, assembler.getPendingLength());
+        assembler.feed(bytes(8, 7, 6), 0, 3);
+        assertEquals(4, collector.frames.size());
+        assertArrayEquals(bytes(9, 8, 7, 6), collector.frames.get(3));
+    }
+
+    @Test
+    public void lengthFieldLittleEndianWithHeader() {
+        Collector collector = new Collector();
+        // [0xAA][2字节小端长度，包含帧头3字节][数据]，回调保留帧头
+        FrameAssembler assembler = new FrameAssembler(new LengthFieldDecoder(1, 2, -3, 0, false), collector);
+        feedSplit(assembler, bytes(0xAA, 5, 0, 1, 2, 0xAA, 3, 0), 3);
+        assertEquals(2, collector.frames.size());
+        assertArrayEquals(bytes(0xAA, 5, 0, 1, 2), collector.frames.get(0));
+        assertArrayEquals(bytes(0xAA, 3, 0), collector.frames.get(1));
+    }
+
+    @Test
+    public void lengthFieldInvalidLengthResets() {
+        Collector collector = new Collector();
+        // 长度包含帧头，长度字段值小于帧头长度时无法解析
+        FrameAssembler assembler = new FrameAssembler(new LengthFieldDecoder(0, 1, -1, 1, true), collector);
+        assembler.feed(bytes(0, 1, 2), 0, 3);
+        assertTrue(collector.frames.isEmpty());
+        assertEquals(0, assembler.getPendingLength());
+        assembler.feed(bytes(3, 7, 8), 0, 3);
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals(bytes(7, 8), collector.frames.get(0));
+    }
+
+    @Test
+    public void delimiterSplitAcrossChunks() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new DelimiterDecoder(new byte[]{'\r', '\n'}, true), collector);
+        assembler.feed("AT+OK\r".getBytes(), 0, 6);
+        assertTrue(collector.frames.isEmpty());
+        assembler.feed("\n\r\nAT".getBytes(), 0, 5);
+        // 空帧不回调
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals("AT+OK".getBytes(), collector.frames.get(0));
+        assertEquals(2, assembler.getPendingLength());
+        feedBytewise(assembler, "+ERR\r\n".getBytes());
+        assertEquals(2, collector.frames.size());
+        assertArrayEquals("AT+ERR".getBytes(), collector.frames.get(1));
+        assertEquals(0, assembler.getPendingLength());
+    }
+
+    @Test
+    public void delimiterKept() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new DelimiterDecoder(new byte[]{'\n'}, false), collector);
+        feedSplit(assembler, "a\n\nbc\n".getBytes(), 4);
+        assertEquals(3, collector.frames.size());
+        assertArrayEquals("a\n".getBytes(), collector.frames.get(0));
+        assertArrayEquals("\n".getBytes(), collector.frames.get(1));
+        assertArrayEquals("bc\n".getBytes(), collector.frames.get(2));
+    }
+
+    @Test
+    public void slipEscapes() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new SlipDecoder(), collector);
+        byte[] first = bytes(1, 0xC0, 2, 0xDB, 3);
+        byte[] second = bytes(0xDB, 0xDB, 0xC0, 0xC0);
+        byte[] stream = concat(bytes(0xC0), slipEncode(first), bytes(0xC0), slipEncode(second));
+        // 逐字节输入，ESC与其后的字节分在不同分片中
+        feedBytewise(assembler, stream);
+        assertEquals(2, collector.frames.size());
+        assertArrayEquals(first, collector.frames.get(0));
+        assertArrayEquals(second, collector.frames.get(1));
+
+        collector.frames.clear();
+        for (int step = 2; step <= stream.length; step++) {
+            feedSplit(assembler, stream, step);
+        }
+        assertEquals(2 * (stream.length - 1), collector.frames.size());
+        for (int i = 0; i < collector.frames.size(); i += 2) {
+            assertArrayEquals(first, collector.frames.get(i));
+            assertArrayEquals(second, collector.frames.get(i + 1));
+        }
+    }
+
+    @Test
+    public void slipInvalidEscapeResets() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new SlipDecoder(), collector);
+        assembler.feed(bytes(1, 0xDB, 0x01, 2), 0, 4);
+        assertTrue(collector.frames.isEmpty());
+        assertEquals(0, assembler.getPendingLength());
+        byte[] frame = slipEncode(bytes(5, 6));
+        assembler.feed(frame, 0, frame.length);
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals(bytes(5, 6), collector.frames.get(0));
+    }
+
+    @Test
+    public void cobsZeroRuns() {
+        byte[][] samples = {
+                bytes(0),
+                bytes(0, 0, 0),
+                bytes(1, 0, 0, 2),
+                bytes(0, 1, 2, 3, 0),
+                bytes(0x11, 0x22, 0x00, 0x33),
+                new byte[254],
+                new byte[255],
+                filled(254, 1),
+                filled(255, 7),
+                concat(filled(254, 3), bytes(0), filled(300, 4)),
+        };
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new CobsDecoder(), collector, 16, 4096);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] sample : samples) {
+            byte[] encoded = cobsEncode(sample);
+            stream.write(encoded, 0, encoded.length);
+            // 帧间多余的0x00视为空帧
+            stream.write(0);
+        }
+        byte[] data = stream.toByteArray();
+        feedSplit(assembler, data, 7);
+        assertEquals(samples.length, collector.frames.size());
+        for (int i = 0; i < samples.length; i++) {
+            assertArrayEquals("sample " + i, samples[i], collector.frames.get(i));
+        }
+
+        collector.frames.clear();
+        feedBytewise(assembler, data);
+        assertEquals(samples.length, collector.frames.size());
+        for (int i = 0; i < samples.length; i++) {
+            assertArrayEquals("sample " + i, samples[i], collector.frames.get(i));
+        }
+    }
+
+    @Test
+    public void cobsInvalidCodeResets() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new CobsDecoder(), collector);
+        // code 5 超出帧结尾
+        assembler.feed(bytes(5, 1, 0), 0, 3);
+        assertTrue(collector.frames.isEmpty());
+        assertEquals(0, assembler.getPendingLength());
+        byte[] frame = cobsEncode(bytes(1, 0, 2));
+        assembler.feed(frame, 0, frame.length);
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals(bytes(1, 0, 2), collector.frames.get(0));
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new DelimiterDecoder(new byte[]{'\n'}, true), collector, 4, 1024);
+        byte[] line = filled(600, 'x');
+        feedSplit(assembler, line, 50);
+        assertEquals(600, assembler.getPendingLength());
+        assembler.feed(bytes('\n'), 0, 1);
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals(line, collector.frames.get(0));
+        assertEquals(0, assembler.getPendingLength());
+    }
+
+    @Test
+    public void overflowDropsPending() {
+        Collector collector = new Collector();
+        FrameAssembler assembler = new FrameAssembler(new DelimiterDecoder(new byte[]{'\n'}, true), collector, 4, 16);
+        assembler.feed(filled(10, 'a'), 0, 10);
+        assertEquals(10, assembler.getPendingLength());
+        // 超过最大缓存，丢弃已缓存数据，保留本次数据
+        assembler.feed(filled(10, 'b'), 0, 10);
+        assertEquals(10, assembler.getPendingLength());
+        assembler.feed(bytes('\n'), 0, 1);
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals(filled(10, 'b'), collector.frames.get(0));
+
+        // 单次数据本身超过最大缓存，整体丢弃
+        assembler.feed(filled(20, 'c'), 0, 20);
+        assertEquals(0, assembler.getPendingLength());
+        assembler.feed("ok\n".getBytes(), 0, 3);
+        assertEquals(2, collector.frames.size());
+        assertArrayEquals("ok".getBytes(), collector.frames.get(1));
+    }
+
+    @Test
+    public void resetClearsPartialFrame() {
+        Collector collector = new Collector();
+        SlipDecoder decoder = new SlipDecoder();
+        FrameAssembler assembler = new FrameAssembler(decoder, collector);
+        assembler.feed(bytes(1, 2, 0xDB), 0, 3);
+        assembler.reset();
+        assertEquals(0, assembler.getPendingLength());
+        assembler.feed(bytes(0xDC, 3, 0xC0), 0, 3);
+        // reset后ESC状态已清除，0xDC作为普通数据
+        assertEquals(1, collector.frames.size());
+        assertArrayEquals(bytes(0xDC, 3), collector.frames.get(0));
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
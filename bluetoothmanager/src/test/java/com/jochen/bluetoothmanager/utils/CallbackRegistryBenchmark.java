@@ -0,0 +1,95 @@
+package com.jochen.bluetoothmanager.utils;
+
+import com.jochen.bluetoothmanager.Benchmark;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：CallbackRegistryBenchmark
+ * 描述：CallbackRegistry分发耗时对比，默认不运行
+ * 对比对象为原实现：ArrayList + for-each遍历（线程不安全），以及其线程安全版本：加锁拷贝后遍历
+ * 耗时在断言信息中给出
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+@Category(Benchmark.class)
+public class CallbackRegistryBenchmark {
+    private static final int CALLBACKS = 4;
+    private static final int WARMUP = 200000;
+    private static final int ITERATIONS = 2000000;
+
+    private static class Counter implements Runnable {
+        long count;
+
+        @Override
+        public void run() {
+            count++;
+        }
+    }
+
+    @Test
+    public void dispatch() {
+        CallbackRegistry<Runnable> registry = new CallbackRegistry<>(new Runnable[0]);
+        List<Runnable> list = new ArrayList<>();
+        Counter counter = new Counter();
+        for (int i = 0; i < CALLBACKS; i++) {
+            registry.add(counter);
+            list.add(counter);
+        }
+        Object lock = new Object();
+        long registryNanos = 0;
+        long listNanos = 0;
+        long lockedCopyNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            int iterations = round == 0 ? WARMUP : ITERATIONS;
+            registryNanos = dispatchRegistry(registry, iterations);
+            listNanos = dispatchList(list, iterations);
+            lockedCopyNanos = dispatchLockedCopy(list, lock, iterations);
+        }
+        assertEquals((long) CALLBACKS * 3 * (WARMUP + ITERATIONS), counter.count);
+        String result = String.format("CallbackRegistry dispatch (%d callbacks): registry %.1f ns, ArrayList for-each %.1f ns, locked copy %.1f ns",
+                CALLBACKS, registryNanos / (double) ITERATIONS, listNanos / (double) ITERATIONS, lockedCopyNanos / (double) ITERATIONS);
+        // 快照遍历不加锁、不拷贝，应明显快于加锁拷贝
+        assertTrue(result, registryNanos < lockedCopyNanos);
+    }
+
+    private static long dispatchRegistry(CallbackRegistry<Runnable> registry, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (Runnable callback : registry.snapshot()) {
+                callback.run();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long dispatchList(List<Runnable> list, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (Runnable callback : list) {
+                callback.run();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long dispatchLockedCopy(List<Runnable> list, Object lock, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            List<Runnable> copy;
+            synchronized (lock) {
+                copy = new ArrayList<>(list);
+            }
+            for (Runnable callback : copy) {
+                callback.run();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
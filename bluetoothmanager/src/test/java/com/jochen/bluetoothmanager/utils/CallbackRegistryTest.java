@@ -0,0 +1,66 @@
+package com.jochen.bluetoothmanager.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：CallbackRegistryTest
+ * 描述：CallbackRegistry测试
+ * 分发耗时对比见CallbackRegistryBenchmark
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class CallbackRegistryTest {
+    private static class Counter implements Runnable {
+        long count;
+
+        @Override
+        public void run() {
+            count++;
+        }
+    }
+
+    @Test
+    public void addRemoveSnapshot() {
+        CallbackRegistry<Runnable> registry = new CallbackRegistry<>(new Runnable[0]);
+        assertTrue(registry.isEmpty());
+        Counter a = new Counter();
+        Counter b = new Counter();
+        registry.add(a);
+        registry.add(b);
+        assertEquals(2, registry.size());
+        assertArrayEquals(new Runnable[]{a, b}, registry.snapshot());
+        assertTrue(registry.remove(a));
+        assertFalse(registry.remove(a));
+        assertArrayEquals(new Runnable[]{b}, registry.snapshot());
+        registry.clear();
+        assertEquals(0, registry.snapshot().length);
+    }
+
+    @Test
+    public void modifyDuringDispatch() {
+        final CallbackRegistry<Runnable> registry = new CallbackRegistry<>(new Runnable[0]);
+        final Counter late = new Counter();
+        registry.add(new Runnable() {
+            @Override
+            public void run() {
+                // 分发过程中注册、解绑，不影响本次分发
+                registry.remove(this);
+                registry.add(late);
+            }
+        });
+        Counter second = new Counter();
+        registry.add(second);
+        for (Runnable callback : registry.snapshot()) {
+            callback.run();
+        }
+        assertEquals(1, second.count);
+        assertEquals(0, late.count);
+        for (Runnable callback : registry.snapshot()) {
+            callback.run();
+        }
+        assertEquals(2, second.count);
+        assertEquals(1, late.count);
+    }
+}
@@ -0,0 +1,115 @@
+package com.jochen.bluetoothmanager.utils;
+
+import com.jochen.bluetoothmanager.Benchmark;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：HashedWheelTimerBenchmark
+ * 描述：HashedWheelTimer添加、取消耗时对比，默认不运行
+ * 对比对象为ScheduledThreadPoolExecutor（取消时从队列移除），数万个待执行任务时测量
+ * 耗时在断言信息中给出
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+@Category(Benchmark.class)
+public class HashedWheelTimerBenchmark {
+    // 待执行任务数
+    private static final int TIMEOUTS = 50000;
+    // 数万个任务同时到期时允许的延迟执行时间（毫秒）
+    private static final long MAX_LATENESS = 500;
+
+    private HashedWheelTimer timer;
+
+    @After
+    public void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void scheduleCancel() throws Exception {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        Random random = new Random(3);
+        long[] delays = new long[TIMEOUTS];
+        for (int i = 0; i < TIMEOUTS; i++) {
+            // 与GATT操作、请求超时相当的延时，测量期间不会到期
+            delays[i] = 10000 + random.nextInt(20000);
+        }
+
+        timer = new HashedWheelTimer("test-timer");
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        HashedWheelTimer.Timeout[] timeouts = new HashedWheelTimer.Timeout[TIMEOUTS];
+        List<ScheduledFuture<?>> futures = new ArrayList<>(TIMEOUTS);
+        long wheelSchedule = 0;
+        long wheelCancel = 0;
+        long executorSchedule = 0;
+        long executorCancel = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMEOUTS; i++) {
+                timeouts[i] = timer.schedule(task, delays[i]);
+            }
+            wheelSchedule = System.nanoTime() - start;
+            assertEquals(TIMEOUTS, timer.getPendingCount());
+            start = System.nanoTime();
+            for (int i = 0; i < TIMEOUTS; i++) {
+                timeouts[i].cancel();
+            }
+            wheelCancel = System.nanoTime() - start;
+            assertEquals(0, timer.getPendingCount());
+
+            futures.clear();
+            start = System.nanoTime();
+            for (int i = 0; i < TIMEOUTS; i++) {
+                futures.add(executor.schedule(task, delays[i], TimeUnit.MILLISECONDS));
+            }
+            executorSchedule = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < TIMEOUTS; i++) {
+                futures.get(i).cancel(false);
+            }
+            executorCancel = System.nanoTime() - start;
+            assertEquals(0, executor.getQueue().size());
+        }
+        executor.shutdownNow();
+        String result = String.format("HashedWheelTimer (%d pending): schedule %.1f ns, cancel %.1f ns; ScheduledThreadPoolExecutor schedule %.1f ns, cancel %.1f ns",
+                TIMEOUTS, wheelSchedule / (double) TIMEOUTS, wheelCancel / (double) TIMEOUTS,
+                executorSchedule / (double) TIMEOUTS, executorCancel / (double) TIMEOUTS);
+        // 取消只做标记，不需要像ScheduledThreadPoolExecutor那样从堆中移除
+        assertTrue(result, wheelCancel < executorCancel);
+
+        // 数万个任务同时到期
+        CountDownLatch latch = new CountDownLatch(TIMEOUTS);
+        AtomicLong maxLateness = new AtomicLong();
+        AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < TIMEOUTS; i++) {
+            long delay = random.nextInt(1000);
+            timer.schedule(new HashedWheelTimerTest.Probe(delay, latch, maxLateness, early), delay);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertTrue(String.format("HashedWheelTimer (%d expiring within 1s): max lateness %.1f ms", TIMEOUTS, maxLateness.get() / 1e6),
+                maxLateness.get() < TimeUnit.MILLISECONDS.toNanos(MAX_LATENESS));
+    }
+}
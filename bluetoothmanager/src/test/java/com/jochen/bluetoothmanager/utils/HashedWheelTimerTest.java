@@ -0,0 +1,210 @@
+package com.jochen.bluetoothmanager.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：HashedWheelTimerTest
+ * 描述：HashedWheelTimer测试
+ * 添加、取消耗时对比见HashedWheelTimerBenchmark
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class HashedWheelTimerTest {
+    // 允许的延迟执行时间（毫秒），测试机负载较高时留有余量
+    private static final long MAX_LATENESS = 200;
+
+    /**
+     * 记录执行时间相对到期时间的偏差
+     */
+    static class Probe implements Runnable {
+        final long deadline;
+        final CountDownLatch latch;
+        final AtomicLong maxLateness;
+        final AtomicInteger early;
+
+        Probe(long delay, CountDownLatch latch, AtomicLong maxLateness, AtomicInteger early) {
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            this.latch = latch;
+            this.maxLateness = maxLateness;
+            this.early = early;
+        }
+
+        @Override
+        public void run() {
+            long lateness = System.nanoTime() - deadline;
+            if (lateness < 0) {
+                early.incrementAndGet();
+            }
+            while (true) {
+                long max = maxLateness.get();
+                if (lateness <= max || maxLateness.compareAndSet(max, lateness)) {
+                    break;
+                }
+            }
+            latch.countDown();
+        }
+    }
+
+    private HashedWheelTimer timer;
+
+    @After
+    public void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void zeroDelay() throws Exception {
+        timer = new HashedWheelTimer("test-timer");
+        int count = 2000;
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicLong maxLateness = new AtomicLong();
+        AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            timer.schedule(new Probe(0, latch, maxLateness, early), 0);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertTrue("lateness " + maxLateness.get(), maxLateness.get() < TimeUnit.MILLISECONDS.toNanos(MAX_LATENESS));
+        assertEquals(0, timer.getPendingCount());
+    }
+
+    @Test
+    public void delaysNeverEarly() throws Exception {
+        timer = new HashedWheelTimer("test-timer");
+        int count = 2000;
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicLong maxLateness = new AtomicLong();
+        AtomicInteger early = new AtomicInteger();
+        Random random = new Random(2);
+        for (int i = 0; i < count; i++) {
+            long delay = random.nextInt(500);
+            timer.schedule(new Probe(delay, latch, maxLateness, early), delay);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertTrue("lateness " + maxLateness.get(), maxLateness.get() < TimeUnit.MILLISECONDS.toNanos(MAX_LATENESS));
+    }
+
+    @Test
+    public void earlierTimeoutWakesSleepingWorker() throws Exception {
+        timer = new HashedWheelTimer("test-timer");
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong maxLateness = new AtomicLong();
+        AtomicInteger early = new AtomicInteger();
+        HashedWheelTimer.Timeout late = timer.schedule(new Probe(3000, never, maxLateness, early), 3000);
+        // 工作线程已休眠到3秒后的槽
+        Thread.sleep(100);
+        timer.schedule(new Probe(50, latch, maxLateness, early), 50);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertTrue(late.cancel());
+        assertEquals(0, timer.getPendingCount());
+    }
+
+    @Test
+    public void multipleRounds() throws Exception {
+        // 8个槽，每圈8毫秒，任务跨越多圈
+        timer = new HashedWheelTimer("test-timer", 1, 8);
+        int count = 200;
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicLong maxLateness = new AtomicLong();
+        AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            long delay = 20 + i;
+            timer.schedule(new Probe(delay, latch, maxLateness, early), delay);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        timer = new HashedWheelTimer("test-timer");
+        final AtomicInteger fired = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+        List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            timeouts.add(timer.schedule(task, 100 + i % 50));
+        }
+        assertEquals(1000, timer.getPendingCount());
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+            assertFalse(timeouts.get(i).cancel());
+            assertTrue(timeouts.get(i).isCancelled());
+        }
+        assertEquals(500, timer.getPendingCount());
+        Thread.sleep(500);
+        assertEquals(500, fired.get());
+        assertEquals(0, timer.getPendingCount());
+        for (int i = 1; i < timeouts.size(); i += 2) {
+            assertTrue(timeouts.get(i).isExpired());
+            assertFalse(timeouts.get(i).cancel());
+        }
+    }
+
+    @Test
+    public void stop() throws Exception {
+        timer = new HashedWheelTimer("test-timer");
+        final AtomicInteger fired = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+        HashedWheelTimer.Timeout pending = timer.schedule(task, 100);
+        final CountDownLatch scheduled = new CountDownLatch(1);
+        final Thread[] worker = new Thread[1];
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                worker[0] = Thread.currentThread();
+                scheduled.countDown();
+            }
+        }, 0);
+        assertTrue(scheduled.await(1, TimeUnit.SECONDS));
+        timer.stop();
+        assertFalse(worker[0].isAlive());
+        assertTrue(pending.isCancelled());
+        assertEquals(0, timer.getPendingCount());
+        try {
+            timer.schedule(task, 0);
+            fail("scheduled after stop");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Thread.sleep(200);
+        assertEquals(0, fired.get());
+        // 重复调用无影响
+        timer.stop();
+
+        // 未启动过的定时器
+        HashedWheelTimer unused = new HashedWheelTimer("test-timer");
+        unused.stop();
+        try {
+            unused.schedule(task, 0);
+            fail("scheduled after stop");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
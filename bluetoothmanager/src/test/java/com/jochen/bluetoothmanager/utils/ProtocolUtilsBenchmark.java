@@ -0,0 +1,110 @@
+package com.jochen.bluetoothmanager.utils;
+
+import com.jochen.bluetoothmanager.Benchmark;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：ProtocolUtilsBenchmark
+ * 描述：16进制编解码耗时对比，默认不运行
+ * 对比对象为原实现：String.format("%02x")逐字节编码，String.indexOf逐字符解码
+ * 耗时在断言信息中给出
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+@Category(Benchmark.class)
+public class ProtocolUtilsBenchmark {
+    // 日志中常见的一包数据长度
+    private static final int PACKET_LENGTH = 20;
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 200000;
+
+    @Test
+    public void hexCodec() {
+        byte[] packet = new byte[PACKET_LENGTH];
+        new Random(2).nextBytes(packet);
+        String hex = ProtocolUtils.bytesToHexStr(packet);
+        assertEquals(hex, formatHex(packet));
+        assertArrayEquals(packet, indexOfDecode(hex));
+
+        long tableEncode = 0;
+        long formatEncode = 0;
+        long tableDecode = 0;
+        long indexOfDecode = 0;
+        int sink = 0;
+        for (int round = 0; round < 2; round++) {
+            int iterations = round == 0 ? WARMUP : ITERATIONS;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += ProtocolUtils.bytesToHexStr(packet).length();
+            }
+            tableEncode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += formatHex(packet).length();
+            }
+            formatEncode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += ProtocolUtils.hexStrToBytes(hex).length;
+            }
+            tableDecode = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += indexOfDecode(hex).length;
+            }
+            indexOfDecode = System.nanoTime() - start;
+        }
+        assertEquals((long) (WARMUP + ITERATIONS) * 2 * (PACKET_LENGTH * 2 + PACKET_LENGTH), sink);
+        String result = String.format("hex codec (%d bytes): encode table %.1f ns, String.format %.1f ns; decode table %.1f ns, indexOf %.1f ns",
+                PACKET_LENGTH, tableEncode / (double) ITERATIONS, formatEncode / (double) ITERATIONS,
+                tableDecode / (double) ITERATIONS, indexOfDecode / (double) ITERATIONS);
+        assertTrue(result, tableEncode < formatEncode);
+        assertTrue(result, tableDecode < indexOfDecode);
+    }
+
+    /**
+     * 原编码实现
+     */
+    private static String formatHex(byte[] bytes) {
+        StringBuilder s = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            s.append(String.format("%02x", b));
+        }
+        return s.toString();
+    }
+
+    /**
+     * 原解码实现
+     */
+    private static byte[] indexOfDecode(String hex) {
+        int strLength = hex.length();
+        int length = strLength / 2;
+        char[] hexChars;
+        if (length * 2 < strLength) {
+            length += 1;
+            hexChars = ("0" + hex).toCharArray();
+        } else {
+            hexChars = hex.toCharArray();
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            int pos = i * 2;
+            bytes[i] = (byte) (indexOfValue(hexChars[pos]) << 4 | indexOfValue(hexChars[pos + 1]));
+        }
+        return bytes;
+    }
+
+    private static byte indexOfValue(char c) {
+        byte result = (byte) "0123456789abcdef".indexOf(c);
+        if (result == -1) {
+            return (byte) "0123456789ABCDEF".indexOf(c);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+package com.jochen.bluetoothmanager.utils;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件名：ProtocolUtilsTest
+ * 描述：16进制编解码测试
+ * 编解码耗时对比见ProtocolUtilsBenchmark
+ * 创建人：jochen.zhang
+ * 创建时间：2026/10/18
+ */
+public class ProtocolUtilsTest {
+    @Test
+    public void roundTrip() {
+        Random random = new Random(1);
+        for (int length = 1; length <= 300; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            assertArrayEquals(bytes, ProtocolUtils.hexStrToBytes(ProtocolUtils.bytesToHexStr(bytes)));
+            assertArrayEquals(bytes, ProtocolUtils.hexStrToBytes(ProtocolUtils.bytesToHexStr(bytes, true)));
+        }
+        byte[] all = new byte[256];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (byte) i;
+        }
+        String hex = ProtocolUtils.bytesToHexStr(all);
+        assertEquals("00010203", hex.substring(0, 8));
+        assertEquals("fcfdfeff", hex.substring(hex.length() - 8));
+        assertEquals(hex.toUpperCase(), ProtocolUtils.bytesToHexStr(all, true));
+        assertArrayEquals(all, ProtocolUtils.hexStrToBytes(hex));
+    }
+
+    @Test
+    public void encodeRanges() {
+        byte[] bytes = {0x01, (byte) 0xAB, (byte) 0xCD, 0x7F};
+        assertEquals("abcd", ProtocolUtils.bytesToHexStr(bytes, 1, 2, false));
+        assertEquals("ABCD", ProtocolUtils.bytesToHexStr(bytes, 1, 2, true));
+        assertNull(ProtocolUtils.bytesToHexStr(bytes, 0, 0, false));
+        assertNull(ProtocolUtils.bytesToHexStr((byte[]) null));
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, 3);
+        assertEquals("abcd7f", ProtocolUtils.bytesToHexStr(buffer));
+        assertEquals(1, buffer.position());
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        direct.put(bytes).flip();
+        direct.get();
+        assertEquals("abcd7f", ProtocolUtils.bytesToHexStr(direct));
+        assertEquals(1, direct.position());
+        assertNull(ProtocolUtils.bytesToHexStr(ByteBuffer.allocate(0)));
+
+        StringBuilder builder = new StringBuilder("data: ");
+        ProtocolUtils.appendHex(builder, bytes, 0, 2, true);
+        assertEquals("data: 01AB", builder.toString());
+    }
+
+    @Test
+    public void toBytesCopies() {
+        byte[] array = {1, 2, 3};
+        byte[] bytes = ProtocolUtils.toBytes(ByteBuffer.wrap(array));
+        assertNotSame(array, bytes);
+        assertArrayEquals(array, bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(array, 1, 2);
+        assertArrayEquals(new byte[]{2, 3}, ProtocolUtils.toBytes(buffer));
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void oddLength() {
+        assertArrayEquals(new byte[]{0x0A}, ProtocolUtils.hexStrToBytes("a"));
+        assertArrayEquals(new byte[]{0x01, 0x23}, ProtocolUtils.hexStrToBytes("123"));
+        assertArrayEquals(new byte[]{0x0F, (byte) 0xFF, (byte) 0xFF}, ProtocolUtils.hexStrToBytes("fffff"));
+        byte[] bytes = new byte[3];
+        assertEquals(2, ProtocolUtils.decodeHex("x123x", 1, 4, bytes, 1));
+        assertArrayEquals(new byte[]{0, 0x01, 0x23}, bytes);
+    }
+
+    @Test
+    public void mixedCase() {
+        byte[] expected = {(byte) 0xAB, (byte) 0xCD, (byte) 0xEF};
+        assertArrayEquals(expected, ProtocolUtils.hexStrToBytes("abcdef"));
+        assertArrayEquals(expected, ProtocolUtils.hexStrToBytes("ABCDEF"));
+        assertArrayEquals(expected, ProtocolUtils.hexStrToBytes("aBcDeF"));
+        assertArrayEquals(expected, ProtocolUtils.hexStrToBytes("AbCdEf"));
+        for (char c = '0'; c <= '9'; c++) {
+            assertEquals(c - '0', ProtocolUtils.charToByte(c));
+        }
+        for (char c = 'a'; c <= 'f'; c++) {
+            assertEquals(c - 'a' + 10, ProtocolUtils.charToByte(c));
+            assertEquals(c - 'a' + 10, ProtocolUtils.charToByte(Character.toUpperCase(c)));
+        }
+    }
+
+    @Test
+    public void separators() {
+        // 不支持分隔符，需调用方先去掉
+        assertNull(ProtocolUtils.hexStrToBytes("01:23:45"));
+        assertNull(ProtocolUtils.hexStrToBytes("01 23 45"));
+        assertNull(ProtocolUtils.hexStrToBytes("01-23"));
+        assertNull(ProtocolUtils.hexStrToBytes("0x12"));
+        assertArrayEquals(new byte[]{0x00, 0x11, 0x22, 0x33, 0x44, (byte) 0xAA},
+                ProtocolUtils.hexStrToBytes("00:11:22:33:44:AA".replace(":", "")));
+        // 按分隔符分段解码
+        String mac = "00:11:22:33:44:aa";
+        byte[] bytes = new byte[6];
+        for (int i = 0; i < bytes.length; i++) {
+            ProtocolUtils.decodeHex(mac, i * 3, i * 3 + 2, bytes, i);
+        }
+        assertArrayEquals(new byte[]{0x00, 0x11, 0x22, 0x33, 0x44, (byte) 0xAA}, bytes);
+    }
+
+    @Test
+    public void invalidChars() {
+        assertNull(ProtocolUtils.hexStrToBytes(null));
+        assertNull(ProtocolUtils.hexStrToBytes(""));
+        assertNull(ProtocolUtils.hexStrToBytes("g0"));
+        assertNull(ProtocolUtils.hexStrToBytes("0G"));
+        assertNull(ProtocolUtils.hexStrToBytes("12z"));
+        // 非ASCII字符，包括全角数字
+        assertNull(ProtocolUtils.hexStrToBytes("1\u0661"));
+        assertNull(ProtocolUtils.hexStrToBytes("\uFF11\uFF12"));
+        assertEquals(-1, ProtocolUtils.charToByte('g'));
+        assertEquals(-1, ProtocolUtils.charToByte('\u0080'));
+        assertEquals(-1, ProtocolUtils.charToByte('\uFFFF'));
+        try {
+            ProtocolUtils.decodeHex("12/4", 0, 4, new byte[2], 0);
+            fail("invalid char decoded");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("at 2"));
+        }
+    }
+}